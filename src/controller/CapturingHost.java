@@ -0,0 +1,147 @@
+package controller;
+
+import java.util.List;
+
+import model.Insect;
+import model.Mushroom;
+import model.Tecton;
+
+
+/**
+ * A CapturingHost a lépéskötegek végrehajtása alatt áll a Controller és a
+ * valódi GameHost közé. Az üzeneteket nem továbbítja, hanem lépésenként
+ * megjegyzi, hogy azok a lépés eredményébe kerüljenek; az újrarajzolási
+ * kéréseket összevonja, a többi jelzést továbbadja.
+ */
+class CapturingHost implements GameHost {
+
+    private final GameHost target;
+    private String error;
+    private String information;
+    private boolean dirty;
+
+
+    /**
+     * @param target A valódi megjelenítő környezet.
+     */
+    CapturingHost(GameHost target) {
+        this.target = target;
+        error = null;
+        information = null;
+        dirty = false;
+    }
+
+
+    /**
+     * Elfelejti az előző lépés üzeneteit.
+     */
+    void reset() {
+        error = null;
+        information = null;
+    }
+
+
+    /**
+     * @return Az aktuális lépés első hibaüzenete, vagy null.
+     */
+    String getError() {
+        return error;
+    }
+
+
+    /**
+     * @return Az aktuális lépés utolsó információs üzenete, vagy null.
+     */
+    String getInformation() {
+        return information;
+    }
+
+
+    /**
+     * @return true, ha a köteg alatt valamelyik lépés újrarajzolást kért.
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+
+    @Override
+    public void showError(String str) {
+        if (error == null) {
+            error = str;
+        }
+    }
+
+
+    @Override
+    public void showInformation(String str) {
+        information = str;
+    }
+
+
+    @Override
+    public void repaint() {
+        dirty = true;
+    }
+
+
+    @Override
+    public void setState(GameState state) {
+        target.setState(state);
+    }
+
+
+    @Override
+    public GameState getState() {
+        return target.getState();
+    }
+
+
+    @Override
+    public void endGame() {
+        target.endGame();
+    }
+
+
+    @Override
+    public void addTecton(List<Integer> points, Tecton t, String type) {
+        target.addTecton(points, t, type);
+    }
+
+
+    @Override
+    public void breakTecton(Tecton source, Tecton created1, Tecton created2) {
+        target.breakTecton(source, created1, created2);
+    }
+
+
+    @Override
+    public void addMushroom(Mushroom m) {
+        target.addMushroom(m);
+    }
+
+
+    @Override
+    public void removeMushroom(Mushroom m) {
+        target.removeMushroom(m);
+    }
+
+
+    @Override
+    public void addInsect(Insect i) {
+        target.addInsect(i);
+    }
+
+
+    @Override
+    public void removeInsect(Insect i) {
+        target.removeInsect(i);
+    }
+
+
+    @Override
+    public void runWhenIdle(Runnable task) {
+        target.runWhenIdle(task);
+    }
+
+}
@@ -0,0 +1,156 @@
+package controller;
+
+import model.ITectonController;
+import model.Insect;
+import model.Mushroom;
+
+
+/**
+ * A Command egy játékos egyetlen lépését írja le adatként, hogy a lépések
+ * (például botok vagy hálózati kliensek lépései) kötegben, a Controller
+ * submit metódusán keresztül legyenek végrehajthatók. A lépéseket a statikus
+ * gyártómetódusok hozzák létre.
+ */
+public final class Command {
+
+    /**
+     * A lépés fajtája.
+     */
+    public enum Type {
+        MOVE, CUT, BRANCH_THREAD, GROW_MUSHROOM, SHOOT_SPORE, EAT_INSECT, CLOSE_STEP
+    }
+
+
+    private final Type type;
+    private final Insect insect;
+    private final Mushroom mushroom;
+    private final ITectonController tecton;
+
+
+    private Command(Type type, Insect insect, Mushroom mushroom, ITectonController tecton) {
+        this.type = type;
+        this.insect = insect;
+        this.mushroom = mushroom;
+        this.tecton = tecton;
+    }
+
+
+    /**
+     * @param insect A lépő rovar.
+     * @param tecton A céltekton.
+     * @return A rovar lépése.
+     */
+    public static Command move(Insect insect, ITectonController tecton) {
+        return new Command(Type.MOVE, insect, null, tecton);
+    }
+
+
+    /**
+     * @param insect A vágó rovar.
+     * @param tecton A tekton, amelyen a vágás történik.
+     * @return A fonálvágás.
+     */
+    public static Command cut(Insect insect, ITectonController tecton) {
+        return new Command(Type.CUT, insect, null, tecton);
+    }
+
+
+    /**
+     * @param tecton A céltekton.
+     * @return Az aktuális gombász fonalának elágaztatása.
+     */
+    public static Command branchThread(ITectonController tecton) {
+        return new Command(Type.BRANCH_THREAD, null, null, tecton);
+    }
+
+
+    /**
+     * @param tecton A tekton, amelyen a gombatest nő.
+     * @return Az aktuális gombász gombatest-növesztése.
+     */
+    public static Command growMushroom(ITectonController tecton) {
+        return new Command(Type.GROW_MUSHROOM, null, null, tecton);
+    }
+
+
+    /**
+     * @param mushroom A lövő gombatest.
+     * @param tecton   A céltekton.
+     * @return A spóralövés.
+     */
+    public static Command shootSpore(Mushroom mushroom, ITectonController tecton) {
+        return new Command(Type.SHOOT_SPORE, null, mushroom, tecton);
+    }
+
+
+    /**
+     * @param insect A megevendő rovar.
+     * @return Az aktuális gombász rovarevése.
+     */
+    public static Command eatInsect(Insect insect) {
+        return new Command(Type.EAT_INSECT, insect, null, null);
+    }
+
+
+    /**
+     * @return Az aktuális játékos lépésének lezárása.
+     */
+    public static Command closeStep() {
+        return new Command(Type.CLOSE_STEP, null, null, null);
+    }
+
+
+    /**
+     * @return A lépés fajtája.
+     */
+    public Type getType() {
+        return type;
+    }
+
+
+    /**
+     * @return A lépésben szereplő rovar, vagy null.
+     */
+    public Insect getInsect() {
+        return insect;
+    }
+
+
+    /**
+     * @return A lépésben szereplő gombatest, vagy null.
+     */
+    public Mushroom getMushroom() {
+        return mushroom;
+    }
+
+
+    /**
+     * @return A lépés céltektonja, vagy null.
+     */
+    public ITectonController getTecton() {
+        return tecton;
+    }
+
+
+    /**
+     * Megadja, hogy a lépés minden szükséges adata meg van-e adva.
+     *
+     * @return true, ha a lépés teljes.
+     */
+    boolean isComplete() {
+        switch (type) {
+            case MOVE:
+            case CUT:
+                return insect != null && tecton != null;
+            case SHOOT_SPORE:
+                return mushroom != null && tecton != null;
+            case EAT_INSECT:
+                return insect != null;
+            case CLOSE_STEP:
+                return true;
+            default:
+                return tecton != null;
+        }
+    }
+
+}
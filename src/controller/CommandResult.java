@@ -0,0 +1,109 @@
+package controller;
+
+
+/**
+ * A CommandResult egy kötegben végrehajtott lépés eredménye: sikerült-e,
+ * sikertelen lépésnél a hiba oka, és ha a Controller üzenetet adott a
+ * lépésről (hiba vagy információ), annak szövege.
+ */
+public final class CommandResult {
+
+    /**
+     * A sikertelen lépés oka.
+     */
+    public enum Reason {
+        /**
+         * A lépés valamelyik adata hiányzik.
+         */
+        INCOMPLETE,
+        /**
+         * A játék még a kezdő körben tart.
+         */
+        NOT_STARTED,
+        /**
+         * A játék valós idejű módban van, a lépéseket a munkamenet fogadja.
+         */
+        REAL_TIME,
+        /**
+         * A lépés fajtáját nem az éppen soron lévő játékos teheti meg.
+         */
+        NOT_YOUR_TURN,
+        /**
+         * A lépés szereplője (rovar, gombatest) nem a soron lévő játékosé.
+         */
+        NOT_OWNER,
+        /**
+         * A szereplő ebben a körben (vagy a kötegben) már megtette ezt a lépést.
+         */
+        ALREADY_USED,
+        /**
+         * A céltektonra (vagy a rovarra) a lépés nem tehető meg.
+         */
+        ILLEGAL_TARGET,
+        /**
+         * A lépés a kötegben elfoglalt helye miatt nem tehető meg.
+         */
+        ORDER,
+        /**
+         * A lépés egy korábbi lépésétől függ ugyanebben a kötegben, vagy a
+         * végrehajtáskor egy korábbi lépés miatt nem sikerült.
+         */
+        CONFLICT,
+        /**
+         * A lépés helyes volt, de a köteg egy másik lépése miatt a köteg nem
+         * hajtódott végre.
+         */
+        BATCH_REJECTED
+    }
+
+
+    private final Command command;
+    private final Reason reason;
+    private final String message;
+
+
+    /**
+     * @param command A lépés.
+     * @param reason  A sikertelenség oka, vagy null, ha a lépés sikerült.
+     * @param message A lépésről adott üzenet, vagy null.
+     */
+    CommandResult(Command command, Reason reason, String message) {
+        this.command = command;
+        this.reason = reason;
+        this.message = message;
+    }
+
+
+    /**
+     * @return A lépés, amelyre az eredmény vonatkozik.
+     */
+    public Command getCommand() {
+        return command;
+    }
+
+
+    /**
+     * @return true, ha a lépés sikerült.
+     */
+    public boolean isSuccess() {
+        return reason == null;
+    }
+
+
+    /**
+     * @return A sikertelenség oka, vagy null, ha a lépés sikerült.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+
+    /**
+     * @return A hibaüzenet sikertelen lépésnél, az információs üzenet (ha volt)
+     * sikeres lépésnél, különben null.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+}
@@ -0,0 +1,191 @@
+package controller;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.FungalThread;
+import model.Insect;
+import model.Mushroom;
+import model.Tecton;
+
+import controller.CommandResult.Reason;
+
+
+/**
+ * A CommandValidator egy lépésköteg minden lépését ellenőrzi a végrehajtás
+ * előtt, a köteg előtti állapot alapján: a játékos soron van-e, övé-e a
+ * szereplő, megteheti-e még a lépést ebben a körben, és a cél a LegalActions
+ * szerint lehetséges-e.
+ * <p>
+ * A köteg korábbi lépéseit az ellenőrző foglalásként tartja nyilván (lépett és
+ * vágott rovarok, elfoglalt céltektonok, elhasznált elágaztatás, kilőtt
+ * spórák), így két, egymást kizáró lépés közül a második hibás lesz. Egy rovar
+ * lépése után ugyanannak a rovarnak további lépései a kötegben nem
+ * ellenőrizhetők (a rovar máshol áll, és állapota is változhat), ezek
+ * CONFLICT okkal hibásak.
+ */
+class CommandValidator {
+
+    private final Controller controller;
+    private final LegalActions legal;
+    private final OwnershipIndex ownership;
+
+    private final Set<Insect> moved;
+    private final Set<Insect> cut;
+    private final Set<Insect> eaten;
+    private final Set<Tecton> claimed;
+    private final Map<Mushroom, Integer> shots;
+    private boolean branched;
+
+    private String message;
+
+
+    /**
+     * @param controller A játékot vezérlő Controller.
+     * @param legal      A lehetséges lépések generátora.
+     * @param ownership  A tulajdonosi index.
+     */
+    CommandValidator(Controller controller, LegalActions legal, OwnershipIndex ownership) {
+        this.controller = controller;
+        this.legal = legal;
+        this.ownership = ownership;
+        moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        cut = Collections.newSetFromMap(new IdentityHashMap<>());
+        eaten = Collections.newSetFromMap(new IdentityHashMap<>());
+        claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        shots = new IdentityHashMap<>();
+        branched = false;
+        message = null;
+    }
+
+
+    /**
+     * Ellenőrzi a köteg összes lépését. A hibás lépésekhez a hiba oka kerül a
+     * visszaadott tömbbe, szövege a messages tömbbe; a helyes lépésekhez null.
+     *
+     * @param commands A köteg lépései.
+     * @param messages A hibák szövegei, a lépésekkel azonos sorrendben.
+     * @return A lépések hibáinak okai, a lépésekkel azonos sorrendben.
+     */
+    Reason[] validate(List<Command> commands, String[] messages) {
+        Reason[] reasons = new Reason[commands.size()];
+        for (int k = 0; k < commands.size(); k++) {
+            message = null;
+            reasons[k] = check(commands.get(k), k == commands.size() - 1);
+            messages[k] = message;
+        }
+        return reasons;
+    }
+
+
+    /**
+     * Ellenőriz egy lépést, és helyes lépésnél lefoglalja, amit a lépés
+     * elhasznál.
+     */
+    private Reason check(Command command, boolean last) {
+        if (command == null || !command.isComplete())
+            return fail(Reason.INCOMPLETE, "Hiányos lépés");
+
+        if (command.getType() == Command.Type.CLOSE_STEP) {
+            return last ? null : fail(Reason.ORDER, "A lépés lezárása csak a köteg utolsó lépése lehet");
+        }
+        if (controller.getRound() == 0)
+            return fail(Reason.NOT_STARTED, "A játék még nem kezdődött el");
+
+        Player current = controller.getCurrentPlayer();
+        switch (command.getType()) {
+            case MOVE:
+            case CUT:
+                if (!(current instanceof InsectPlayer))
+                    return fail(Reason.NOT_YOUR_TURN, "Nem rovarász van soron");
+                return checkInsect(command, current);
+            default:
+                if (!(current instanceof FungusPlayer))
+                    return fail(Reason.NOT_YOUR_TURN, "Nem gombász van soron");
+                return checkFungus(command, (FungusPlayer) current);
+        }
+    }
+
+
+    private Reason checkInsect(Command command, Player current) {
+        Insect insect = command.getInsect();
+        Tecton target = (Tecton) command.getTecton();
+        InsectAssociation a = ownership.getInsectAssociation(insect);
+        if (a == null || ownership.getInsectPlayer(insect) != current)
+            return fail(Reason.NOT_OWNER, "Ez nem a te rovarad");
+        if (moved.contains(insect))
+            return fail(Reason.CONFLICT, "A rovar a kötegben már lépett, további lépése külön kötegben adható le");
+
+        if (command.getType() == Command.Type.MOVE) {
+            if (a.getMoved())
+                return fail(Reason.ALREADY_USED, "Már léptél ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
+            if (claimed.contains(target) || !legal.moveTargets(insect).contains(target))
+                return fail(Reason.ILLEGAL_TARGET, "A rovar erre a tektonra nem léphet");
+            moved.add(insect);
+            claimed.add(target);
+        } else {
+            if (a.getCut() || cut.contains(insect))
+                return fail(Reason.ALREADY_USED, "Már vágtál ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
+            if (!legal.cutTargets(insect).contains(target))
+                return fail(Reason.ILLEGAL_TARGET, "A rovar ezen a tektonon nem vághat fonalat");
+            cut.add(insect);
+        }
+        return null;
+    }
+
+
+    private Reason checkFungus(Command command, FungusPlayer player) {
+        Tecton target = (Tecton) command.getTecton();
+        switch (command.getType()) {
+            case BRANCH_THREAD:
+                if (player.getBranchThread() || branched)
+                    return fail(Reason.ALREADY_USED, "Ebben a körben már ágaztattál el fonalat");
+                if (claimed.contains(target) || !legal.branchTargets(player).contains(target))
+                    return fail(Reason.ILLEGAL_TARGET, "Erre a tektonra a fonal nem ágaztatható el");
+                claimed.add(target);
+                // spórás tektonra ágaztatva az elágaztatás nem használódik el
+                branched = target.sporeCount((FungalThread) player.getThread()) == 0;
+                return null;
+
+            case GROW_MUSHROOM:
+                if (claimed.contains(target) || !legal.growTargets(player).contains(target))
+                    return fail(Reason.ILLEGAL_TARGET, "Ezen a tektonon nem növeszthető gombatest");
+                claimed.add(target);
+                return null;
+
+            case SHOOT_SPORE: {
+                Mushroom m = command.getMushroom();
+                if (ownership.getFungusPlayer(m) != player)
+                    return fail(Reason.NOT_OWNER, "Más játékos gombatestét jelölted ki");
+                int fired = shots.getOrDefault(m, 0);
+                if (fired >= m.getSpores().size() || m.getShootedSporesCount() + fired >= 10)
+                    return fail(Reason.ALREADY_USED, "A gombatestnek nincs több kilőhető spórája");
+                if (!legal.shootTargets(m).contains(target))
+                    return fail(Reason.ILLEGAL_TARGET, "Erre a tektonra a gombatest nem lőhet");
+                shots.put(m, fired + 1);
+                return null;
+            }
+
+            case EAT_INSECT: {
+                Insect insect = command.getInsect();
+                if (eaten.contains(insect) || !legal.canEat(player, insect))
+                    return fail(Reason.ILLEGAL_TARGET, "A rovar nem ehető meg");
+                eaten.add(insect);
+                return null;
+            }
+
+            default:
+                return null;
+        }
+    }
+
+
+    private Reason fail(Reason reason, String text) {
+        message = text;
+        return reason;
+    }
+
+}
@@ -4,14 +4,12 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import model.*;
 import static model.InsectState.*;
-import view.*;
 
 
 /**
@@ -20,24 +18,38 @@ import view.*;
  * valamint végrehajtja a játék során szükséges műveleteket.
  */
 public class Controller {
+    private static final int EVOLVE_PHASE = 1;
+    private static final int SPORE_PHASE = 2;
+    private static final int TECTON_PHASE = 3;
+    private static final int PHASE_COUNT = 4;
+
+    static final int EVOLVE_AGE = 5;
+    private static final int SPORE_PERIOD = 2;
+    private static final int TECTON_PERIOD = 4;
+
     private int round;
-    private HashMap<String, Object> objects;
+    private final RoundScheduler scheduler;
+    private final EntityStore entities;
+    private final EntityRegistry objects;
     private int maxRound;
     private Player currentPlayer;
+    private final ThreadLocal<Player> acting;
 
-    private int mushroomCount;
-    private int fungalThreadCount;
-    private int sporeCount;
-    private int insectCount;
-    private int tectonCount;
     private boolean randomize;
 
     private List<InsectPlayer> insectPlayers;
     private List<FungusPlayer> fungusPlayers;
     private List<ITectonController> tList;
+    private TectonGraph graph;
     private int fungusPlayerCount;
     private int insectPlayerCount;
-    private GamePanel gPanel;
+    private GameHost host;
+    private GameRandom random;
+    private InvariantChecker checker;
+    private volatile RealTimeSession session;
+    private LegalActions legalActions;
+    private final TurnScheduler turns;
+    private final List<Runnable> roundPhases;
 
 
     /**
@@ -47,21 +59,34 @@ public class Controller {
      */
     public Controller() {
         round = 0;
-        objects = new HashMap<>();
+        objects = new EntityRegistry();
         maxRound = 5;
         currentPlayer = null;
-        mushroomCount = 0;
-        fungalThreadCount = 0;
-        sporeCount = 0;
-        insectCount = 0;
-        tectonCount = 0;
+        acting = new ThreadLocal<>();
         fungusPlayerCount = 0;
-        insectCount = 0;
         randomize = true;
         insectPlayers = new ArrayList<>();
         fungusPlayers = new ArrayList<>();
         tList = new ArrayList<>();
-        gPanel = null;
+        graph = new TectonGraph();
+        host = new HeadlessHost();
+        random = new GameRandom();
+        checker = null;
+        session = null;
+        legalActions = null;
+        turns = new TurnScheduler();
+
+        entities = new EntityStore();
+        scheduler = new RoundScheduler(PHASE_COUNT);
+        scheduler.schedule(SPORE_PERIOD, SPORE_PHASE, this::produceSpores);
+        scheduler.schedule(TECTON_PERIOD, TECTON_PHASE, this::absorbAndBreak);
+
+        roundPhases = List.of(
+                this::decayThreads,
+                this::resetTurnFlags,
+                () -> scheduler.runDue(EVOLVE_PHASE),
+                () -> scheduler.runDue(SPORE_PHASE),
+                () -> scheduler.runDue(TECTON_PHASE));
     }
 
 
@@ -71,11 +96,27 @@ public class Controller {
      * @return Az aktuális játékos neve, ha megtalálható, különben null.
      */
     public String getCurrentPlayerName() {
-        for (Map.Entry<String, Object> entry : objects.entrySet())
-            if (entry.getValue() == currentPlayer)
-                return entry.getKey();
+        return objects.nameOf(current());
+    }
+
+
+    /**
+     * Visszaadja az aktuális játékost.
+     *
+     * @return A soron lévő játékos, vagy null, ha a játék még nem kezdődött el.
+     */
+    public Player getCurrentPlayer() {
+        return current();
+    }
+
 
-        return null;
+    /**
+     * Visszaadja a hívó szálon a munkamenet lépését végrehajtó játékost, ha
+     * van ilyen, különben a soron lévő játékost.
+     */
+    private Player current() {
+        Player p = acting.get();
+        return p != null ? p : currentPlayer;
     }
 
 
@@ -98,9 +139,8 @@ public class Controller {
     public Map<String, Integer> getInsectScores() {
         Map<String, Integer> insectScores = new LinkedHashMap<>();
 
-        for (Map.Entry<String, Object> entry : objects.entrySet())
-            if (entry.getValue() instanceof InsectPlayer player)
-                insectScores.put(entry.getKey(), player.getPoints());
+        for (InsectPlayer player : insectPlayers)
+            insectScores.put(objects.nameOf(player), player.getPoints());
 
         return insectScores;
     }
@@ -115,9 +155,8 @@ public class Controller {
     public Map<String, Integer> getFungalScores() {
         Map<String, Integer> fungalScores = new LinkedHashMap<>();
 
-        for (Map.Entry<String, Object> entry : objects.entrySet())
-            if (entry.getValue() instanceof FungusPlayer player)
-                fungalScores.put(entry.getKey(), player.getPoints());
+        for (FungusPlayer player : fungusPlayers)
+            fungalScores.put(objects.nameOf(player), player.getPoints());
 
         return fungalScores;
     }
@@ -150,12 +189,7 @@ public class Controller {
      * @return A megtalált FungusPlayer példány, vagy null, ha nem található ilyen.
      */
     public FungusPlayer getMushroomPlayer(IMushroomController m) {
-        for (FungusPlayer fPlayer : fungusPlayers)
-            for (MushroomAssociation mAssociation : fPlayer.getMushrooms())
-                if (m == mAssociation.getMushroom())
-                    return fPlayer;
-
-        return null;
+        return entities.getOwnership().getFungusPlayer(m);
     }
 
 
@@ -168,12 +202,18 @@ public class Controller {
      * vagy null, ha nincs ilyen.
      */
     public InsectPlayer getInsectPlayer(IInsectController i) {
-        for (InsectPlayer iPlayer : insectPlayers)
-            for (InsectAssociation insectAssociation : iPlayer.getInsects())
-                if (i == insectAssociation.getInsect())
-                    return iPlayer;
+        return entities.getOwnership().getInsectPlayer(i);
+    }
 
-        return null;
+
+    /**
+     * Visszaadja egy rovar, gomba, fonál vagy spóra tulajdonosát.
+     *
+     * @param entity Az objektum, amelynek a tulajdonosát keressük.
+     * @return A tulajdonos játékos, vagy null, ha az objektumnak nincs tulajdonosa.
+     */
+    public Player getOwner(Object entity) {
+        return entities.getOwnership().getOwner(entity);
     }
 
 
@@ -184,22 +224,190 @@ public class Controller {
      * @return A fonalhoz tartozó FungusPlayer objektum, vagy null, ha nem található ilyen játékos.
      */
     public FungusPlayer getThreadPlayer(IFungalThreadController f) {
-        for (FungusPlayer fPlayer : fungusPlayers)
-            for (MushroomAssociation mAssociation : fPlayer.getMushrooms())
-                if (f == mAssociation.getMushroom().getThread())
-                    return fPlayer;
+        return entities.getOwnership().getFungusPlayer(f);
+    }
+
+
+    /**
+     * Beállítja a játékot megjelenítő környezetet. null esetén a játék
+     * megjelenítés nélkül fut.
+     *
+     * @param host A megjelenítő környezet.
+     */
+    public void setHost(GameHost host) {
+        this.host = host != null ? host : new HeadlessHost();
+    }
+
+
+    /**
+     * Visszaadja a játékot megjelenítő környezetet.
+     *
+     * @return A megjelenítő környezet.
+     */
+    public GameHost getHost() {
+        return host;
+    }
+
+
+    /**
+     * Beállítja a véletlenszám-generátor magját, hogy a játék
+     * megismételhető legyen.
+     *
+     * @param seed A mag.
+     */
+    public void setSeed(long seed) {
+        random = new GameRandom(seed);
+    }
+
+
+    /**
+     * Visszaadja a játék véletlenszám-forrásának magját. A maggal és a
+     * lépések sorrendjével a játék megismételhető.
+     *
+     * @return A mag.
+     */
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+
+    /**
+     * Visszaadja a játék véletlenszám-forrását, például részszimulációk
+     * forrásainak leválasztásához.
+     *
+     * @return A véletlenszám-forrás.
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+
+    /**
+     * Be- vagy kikapcsolja a modell invariánsainak ellenőrzését. Bekapcsolva
+     * minden művelet után ellenőrzésre kerülnek a művelet által érintett
+     * tektonok és fonalak, és sérülés esetén a művelet IllegalStateException-t
+     * dob.
+     *
+     * @param check true, ha az ellenőrzést be kell kapcsolni.
+     */
+    public void setCheckInvariants(boolean check) {
+        if (check && checker == null) {
+            checker = new InvariantChecker(graph);
+            graph.getEvents().addListener(checker);
+        } else if (!check && checker != null) {
+            graph.getEvents().removeListener(checker);
+            checker = null;
+        }
+    }
+
+
+    /**
+     * Visszaadja a lehetséges lépések generátorát. Az első hívás hozza létre,
+     * onnantól a generátor a modell eseményeiből tartja karban a gyorsítótárát.
+     *
+     * @return A lehetséges lépések generátora.
+     */
+    public LegalActions getLegalActions() {
+        if (legalActions == null) {
+            legalActions = new LegalActions(this, graph, entities.getOwnership());
+        }
+        return legalActions;
+    }
+
 
-        return null;
+    /**
+     * Be- vagy kikapcsolja a valós idejű játékmódot. Bekapcsolva a move, cut,
+     * branchThread(FungusPlayer, ...) és shootSpore hívások bármely szálról
+     * érkezhetnek: a lépés a munkamenet sorába kerül, és a munkamenet
+     * következő ütemében hajtódik végre. A játékost a lépés szereplője (a
+     * rovar vagy a gombatest), elágaztatásnál a megadott gombász határozza
+     * meg, nem az aktuális játékos.
+     *
+     * @param realTime true, ha a valós idejű módot be kell kapcsolni.
+     * @return A valós idejű munkamenet, vagy null, ha a mód ki van kapcsolva.
+     */
+    public RealTimeSession setRealTime(boolean realTime) {
+        if (realTime && session == null) {
+            session = new RealTimeSession(this);
+        } else if (!realTime) {
+            session = null;
+        }
+        return session;
+    }
+
+
+    /**
+     * Visszaadja a valós idejű munkamenetet.
+     *
+     * @return A munkamenet, vagy null, ha a játék körökre osztott.
+     */
+    public RealTimeSession getSession() {
+        return session;
+    }
+
+
+    /**
+     * Visszaadja a játéktér gráfját.
+     *
+     * @return A gráf.
+     */
+    TectonGraph getGraph() {
+        return graph;
     }
 
 
     /**
-     * Beállítja a játékpanelt.
+     * Végrehajt egy lépést a megadott játékos nevében: a lépés idejére, a
+     * hívó szálon a játékos lesz az aktuális játékos. A soron lévő játékos
+     * nem változik, így több szál is végrehajthat egyszerre lépést.
      *
-     * @param gPanel a játékpanel objektum, amelyet beállítunk
+     * @param player A játékos, akinek a nevében a lépés történik.
+     * @param action A lépés.
+     */
+    void actAs(Player player, Runnable action) {
+        Player previous = acting.get();
+        acting.set(player);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                acting.remove();
+            } else {
+                acting.set(previous);
+            }
+        }
+    }
+
+
+    /**
+     * Lefuttatja a valós idejű ütem párhuzamos szakaszát. A szakasz alatt a
+     * gráf, az ütemező és a megjelenítés felé menő jelzések a lépések
+     * DeferredEffects gyűjtőjébe kerülnek (lásd TectonGraph.beginParallel),
+     * amelyeket a hívó a szakasz után, a lépések sorrendjében játszik vissza.
+     *
+     * @param phase A párhuzamos szakasz.
+     */
+    void runParallel(Runnable phase) {
+        GameHost outer = host;
+        host = new DeferredHost(outer);
+        graph.beginParallel();
+        scheduler.setParallel(true);
+        try {
+            phase.run();
+        } finally {
+            scheduler.setParallel(false);
+            graph.endParallel();
+            host = outer;
+        }
+    }
+
+
+    /**
+     * Megadja, hogy a lépést a valós idejű munkamenet sorába kell-e tenni.
      */
-    public void setGPanel(GamePanel gPanel) {
-        this.gPanel = gPanel;
+    private boolean deferToSession() {
+        RealTimeSession s = session;
+        return s != null && !s.isApplyingThread();
     }
 
 
@@ -221,11 +429,9 @@ public class Controller {
      * Emellett ha rovarász kerül kiválasztásra, a játék állapota frissül a "PUTFIRSTINSECT" értékre.
      */
     public void act() {
-        if (!fungusPlayers.isEmpty()) {
-            currentPlayer = fungusPlayers.get(0);
-        } else if (!insectPlayers.isEmpty()) {
-            currentPlayer = insectPlayers.get(0);
-            gPanel.setState(GameState.PUTFIRSTINSECT);
+        currentPlayer = turns.first();
+        if (currentPlayer instanceof InsectPlayer) {
+            host.setState(GameState.PUTFIRSTINSECT);
         }
     }
 
@@ -262,10 +468,11 @@ public class Controller {
             return;
 
         for (String name : names) {
-            FungusPlayer fPlayer = new FungusPlayer();
-            objects.put(name, fPlayer);
+            FungusPlayer fPlayer = new FungusPlayer(entities, fungusPlayers.size());
+            objects.add(name, fPlayer);
             fungusPlayers.add(fPlayer);
         }
+        turns.rebuild(fungusPlayers, insectPlayers);
     }
 
 
@@ -301,10 +508,11 @@ public class Controller {
             return;
 
         for (String name : names) {
-            InsectPlayer iPlayer = new InsectPlayer();
-            objects.put(name, iPlayer);
+            InsectPlayer iPlayer = new InsectPlayer(entities, insectPlayers.size());
+            objects.add(name, iPlayer);
             insectPlayers.add(iPlayer);
         }
+        turns.rebuild(fungusPlayers, insectPlayers);
     }
 
 
@@ -315,9 +523,9 @@ public class Controller {
      * @return Igaz, ha a tecton sikeresen széttörésre került két darabra; hamis, ha a folyamat nem sikerült.
      */
     public boolean breakTecton(ITectonController tecton) {
-        if (gPanel.canBreakTecton((Tecton) tecton)) {
+        if (tecton != null && tecton.canBreak()) {
 
-            if (tecton == null || !objects.containsValue(tecton)) {
+            if (!objects.contains(tecton)) {
                 return false;
             }
 
@@ -328,17 +536,15 @@ public class Controller {
 
             // register new pieces
             Tecton a = pieces.get(0), b = pieces.get(1);
-            String nameA = getNewTectonName();
-            String nameB = getNewTectonName();
 
-            gPanel.breakTecton((Tecton) tecton, a, b);
+            host.breakTecton((Tecton) tecton, a, b);
 
-            objects.put(nameA, a);
-            objects.put(nameB, b);
+            objects.add(EntityKind.TECTON, a);
+            objects.add(EntityKind.TECTON, b);
             tList.add(a);
             tList.add(b);
             // remove old
-            objects.values().removeIf(o -> o == tecton);
+            objects.remove(tecton);
             tList.remove(tecton);
             return true;
         } else {
@@ -355,19 +561,18 @@ public class Controller {
      * @param insect A rovar példány, amely osztódni fog.
      */
     public void divide(Insect insect) {
+        // nincs szabad szomszéd, ahová az új rovar kerülhetne
+        if (insect.getPosition() == null || insect.getPosition().freeNeighborCount() == 0)
+            return;
+
         Insect insect2 = insect.divide();
         if (insect2 != null) {
-            objects.put(getNewInsectName(), insect2);
-
-            InsectPlayer ip = null;
+            objects.add(EntityKind.INSECT, insect2);
 
-            for (InsectPlayer iPlayer : insectPlayers)
-                for (InsectAssociation insectA : iPlayer.getInsects())
-                    if (insectA.getInsect() == insect)
-                        ip = iPlayer;
+            InsectPlayer ip = getInsectPlayer(insect);
 
             ip.addInsect(insect2);
-            gPanel.addInsect(insect2);
+            host.addInsect(insect2);
         }
     }
 
@@ -395,20 +600,26 @@ public class Controller {
         mushroom.setThread(thread);
         mushroom.setPosition((Tecton) tecton);
         if (((fungusPlayers.contains(currentPlayer)) && tecton.putFirstMushroom(thread, mushroom))) {
-            objects.put(getNewMushroomName(), mushroom);
-            objects.put(getNewThreadName(), thread);
+            objects.add(EntityKind.MUSHROOM, mushroom);
+            objects.add(EntityKind.THREAD, thread);
+
+            // a fonál spórái fajtánként egyetlen közös objektumok, ezért itt egyszer kapnak nevet
+            for (SporeType sporeType : SporeType.values())
+                objects.add(EntityKind.SPORE, thread.getSpore(sporeType));
 
             FungusPlayer fungusPlayer = (FungusPlayer) currentPlayer;
             fungusPlayer.addMushroom(mushroom);
+            scheduleEvolve(fungusPlayer);
             fungusPlayer.setThread(thread);
+            thread.setScheduler(scheduler);
             currentPlayer.addPoint();
 
-            gPanel.addMushroom(mushroom);
+            host.addMushroom(mushroom);
             setCurrentPlayer();
-            gPanel.repaint();
+            host.repaint();
             return true;
         } else {
-            gPanel.showError("Sikertelen gombatest lehelyezés");
+            host.showError("Sikertelen gombatest lehelyezés");
             return false;
         }
     }
@@ -427,34 +638,62 @@ public class Controller {
         Insect insect = new Insect();
 
         if ((insectPlayers.contains(currentPlayer)) && (tecton.putFirstInsect(insect))) {
-            objects.put(getNewInsectName(), insect);
+            objects.add(EntityKind.INSECT, insect);
             InsectPlayer iPlayer = (InsectPlayer) currentPlayer;
             iPlayer.addInsect(insect);
 
-            gPanel.addInsect(insect);
+            host.addInsect(insect);
             setCurrentPlayer();
-            gPanel.repaint();
+            host.repaint();
         } else {
-            gPanel.showError("Sikertelen rovar lehelyezés");
+            host.showError("Sikertelen rovar lehelyezés");
         }
     }
 
 
     /**
-     * Elágaztatja a játékos gombafonalát, amennyiben lehetséges. Ellenőrzi, hogy a
-     * megfelelő játékos gombafonalát próbálják-e elágaztatni, és kezeli az ehhez
-     * kapcsolódó feltételeket és hibákat.
+     * Elágaztatja az aktuális játékos gombafonalát, amennyiben lehetséges.
+     * Ellenőrzi, hogy a megfelelő játékos gombafonalát próbálják-e elágaztatni,
+     * és kezeli az ehhez kapcsolódó feltételeket és hibákat.
+     * <p>
+     * Valós idejű módban az aktuális játékos nem határozza meg, ki ágaztat el,
+     * ezért ott a gombászt is megadó branchThread(FungusPlayer, ...) hívandó.
      *
      * @param tecton az ITectonController interfészt megvalósító példány, amely a
      *               gombafonalak és spórák kezeléséhez szükséges információkat
      *               biztosítja.
+     * @throws IllegalStateException ha a játék valós idejű módban van.
      */
     public void branchThread(ITectonController tecton) {
+        if (deferToSession()) {
+            throw new IllegalStateException("Valós idejű módban az elágaztató gombászt is meg kell adni");
+        }
+        if (currentPlayer instanceof FungusPlayer) {
+            branchThread((FungusPlayer) currentPlayer, tecton);
+        }
+    }
+
+
+    /**
+     * Elágaztatja a megadott gombász fonalát, amennyiben lehetséges. Körökre
+     * osztott játékban a gombásznak soron kell lennie. Valós idejű módban
+     * tetszőleges szálról hívható: a lépés a munkamenet sorába kerül, a
+     * megadott gombász nevében.
+     *
+     * @param player Az elágaztató gombász.
+     * @param tecton A céltekton.
+     */
+    public void branchThread(FungusPlayer player, ITectonController tecton) {
+        RealTimeSession s = session;
+        if (s != null && !s.isApplyingThread()) {
+            s.submitBranch(player, tecton);
+            return;
+        }
+
         FungalThread thread;
 
-        if (fungusPlayers.contains(currentPlayer)) {
-            FungusPlayer fp = (FungusPlayer) currentPlayer;
-            thread = (FungalThread) fp.getThread();
+        if (player != null && player == current() && fungusPlayers.contains(player)) {
+            thread = (FungalThread) player.getThread();
         } else return;
 
         if (round == 0)
@@ -462,35 +701,26 @@ public class Controller {
 
         // Megnézzük, hogy annak a játékosnak a fonalával akarunk lépni amelyik most van
         // soron
-        FungusPlayer mushroomPlayer = null;
-        for (FungusPlayer fPlayer : fungusPlayers)
-            if (fPlayer.getThread() == thread)
-                mushroomPlayer = fPlayer;
+        FungusPlayer mushroomPlayer = getThreadPlayer(thread);
 
-        if (mushroomPlayer != currentPlayer)
+        if (mushroomPlayer != current())
             return;
 
         if (!mushroomPlayer.getBranchThread()) {
 
             // Ha sikertelen akkor kiírja
             if (!thread.branchThread((Tecton) tecton)) {
-                gPanel.showError("Sikertelen gombafonál elágaztatás");
+                host.showError("Sikertelen gombafonál elágaztatás");
             } else {
-                List<Spore> slist = new ArrayList<>();
-                slist = tecton.getSpores();
-
-                boolean isSpore = false;
-                for (int i = 0; i < slist.size(); i++)
-                    if (slist.get(i).getThread() == thread)
-                        isSpore = true;
+                boolean isSpore = tecton.sporeCount(thread) > 0;
 
                 if (!isSpore)
                     mushroomPlayer.setBranchThread(true);
 
-                gPanel.repaint();
+                host.repaint();
             }
         } else {
-            gPanel.showError("Ebben a körben már ágaztattál el fonalat");
+            host.showError("Ebben a körben már ágaztattál el fonalat");
         }
     }
 
@@ -504,34 +734,35 @@ public class Controller {
      * @param t Az a ITectonController objektum, amely a spóra célpontját képviseli.
      */
     public void shootSpore(Mushroom m, ITectonController t) {
+        if (deferToSession()) {
+            session.submitShoot(m, t);
+            return;
+        }
+
         if (round == 0)
             return;
 
         // Meg kell találni a gomba playerét, és meg kell nézni hogy a currentPlayer
         // az-e
-        FungusPlayer mushroomPlayer = null;
-        for (FungusPlayer fPlayer : fungusPlayers)
-            for (MushroomAssociation mushroomA : fPlayer.getMushrooms())
-                if (mushroomA.getMushroom() == m)
-                    mushroomPlayer = fPlayer;
-
-        if (mushroomPlayer != currentPlayer) {
-            gPanel.showError("Más játékos gombatestét jelölted ki vagy nem jelöltél ki gombatestet");
+        FungusPlayer mushroomPlayer = getMushroomPlayer(m);
+
+        if (mushroomPlayer != current()) {
+            host.showError("Más játékos gombatestét jelölted ki vagy nem jelöltél ki gombatestet");
             return;
         }
 
         if (!m.shootSpore((Tecton) t)) {
-            gPanel.showError("Nem sikerült a spórát kilőni");
+            host.showError("Nem sikerült a spórát kilőni");
         } else {
             if (m.getShootedSporesCount() >= 10) {
                 m.getPosition().removeMushroom();
                 m.getThread().deleteUnnecessaryThreads();
                 mushroomPlayer.rm(m);
 
-                gPanel.removeMushroom(m);
+                host.removeMushroom(m);
 
-                objects.entrySet().removeIf(entry -> entry.getValue() == m);
-                gPanel.repaint();
+                objects.remove(m);
+                host.repaint();
             }
         }
     }
@@ -555,52 +786,28 @@ public class Controller {
         if (round == 0)
             return;
 
-        FungusPlayer mushroomPlayer = null;
-        for (FungusPlayer fPlayer : fungusPlayers)
-            if (fPlayer.getThread() == thread)
-                mushroomPlayer = fPlayer;
+        FungusPlayer mushroomPlayer = getThreadPlayer(thread);
 
         if (mushroomPlayer != currentPlayer)
             return;
 
         Mushroom mushroom = new Mushroom();
-        List<Spore> slist = tecton.getSpores();
-        List<Spore> removable = new ArrayList<>();
 
         if (thread.growMushroom((Tecton) tecton, mushroom)) {
-            objects.put(getNewMushroomName(), mushroom);
+            objects.add(EntityKind.MUSHROOM, mushroom);
             mushroomPlayer.addMushroom(mushroom);
+            scheduleEvolve(mushroomPlayer);
             mushroomPlayer.addPoint();
 
-            gPanel.addMushroom(mushroom);
-            int thisSporeCount = 0;
-
-            for (int i = 0; i < slist.size(); i++) {
-                if (slist.get(i).getThread() == thread) {
-                    thisSporeCount += 1;
-                    if (thisSporeCount <= 3) {
-                        removable.add(slist.get(i));
-                    }
-                }
-            }
-
-            for (int i = 0; i < 3; i++) {
-                String str = null;
-                for (Map.Entry<String, Object> entry : objects.entrySet()) {
-                    if (entry.getValue().equals(removable.get(i))) {
-                        str = entry.getKey();
-                        break;
-                    }
-                }
-                objects.remove(str);
-            }
+            host.addMushroom(mushroom);
 
-            for (int i = 0; i < 3; i++)
-                tecton.removeSpores(removable);
+            // a növesztéshez felhasznált három spóra lekerül a tektonról; a spórák
+            // a fonál közös objektumai, ezért a nevük megmarad
+            tecton.takeSpores(thread, 3);
 
-            gPanel.repaint();
+            host.repaint();
         } else {
-            gPanel.showError("Nem sikerült gombatestet növeszteni");
+            host.showError("Nem sikerült gombatestet növeszteni");
         }
     }
 
@@ -623,52 +830,42 @@ public class Controller {
 
         // Megnézzük, hogy annak a játékosnak a fonalával akarunk lépni amelyik most van
         // soron
-        FungusPlayer mushroomPlayer = null;
-        for (FungusPlayer fPlayer : fungusPlayers)
-            if (fPlayer.getThread() == thread)
-                mushroomPlayer = fPlayer;
+        FungusPlayer mushroomPlayer = getThreadPlayer(thread);
 
         if (mushroomPlayer != currentPlayer)
             return;
 
-        boolean canEat = false;
-        for (InsectPlayer iPlayer : insectPlayers)
-            for (InsectAssociation insectA : iPlayer.getInsects())
-                if (insectA.getInsect() == insect)
-                    if ((insectA.getCut()) && (insectA.getMoved()))
-                        canEat = true;
+        InsectAssociation insectA = entities.getOwnership().getInsectAssociation(insect);
+        boolean canEat = insectA != null && insectA.getCut() && insectA.getMoved();
 
         if (canEat) {
             // Ha sikertelen, akkor kiírja, egyébként kivesszi a rovart az objectsből
             if (!thread.eatInsect(insect)) {
-                gPanel.showError("Nem sikerült a rovart megenni");
+                host.showError("Nem sikerült a rovart megenni");
             } else {
                 if (insect.getPosition().canPutMushroom()) {
                     Mushroom m = new Mushroom();
                     m.setPosition(insect.getPosition());
                     m.setThread(thread);
                     if (insect.getPosition().setMushroom(m)) {
-                        objects.put(getNewMushroomName(), m);
+                        objects.add(EntityKind.MUSHROOM, m);
                         mushroomPlayer.addMushroom(m);
+                        scheduleEvolve(mushroomPlayer);
                         mushroomPlayer.addPoint();
 
-                        gPanel.addMushroom(m);
+                        host.addMushroom(m);
                     }
                 }
 
-                InsectPlayer insectPlayer = null;
-                for (InsectPlayer iPlayer : insectPlayers)
-                    for (InsectAssociation insectA : iPlayer.getInsects())
-                        if (insectA.getInsect() == insect)
-                            insectPlayer = iPlayer;
+                InsectPlayer insectPlayer = getInsectPlayer(insect);
 
                 insectPlayer.rm(insect);
-                gPanel.removeInsect(insect);
-                objects.entrySet().removeIf(entry -> entry.getValue() == insect);
-                gPanel.repaint();
+                host.removeInsect(insect);
+                objects.remove(insect);
+                host.repaint();
             }
         } else {
-            gPanel.showError("Ezt a rovart nem tudod megenni");
+            host.showError("Ezt a rovart nem tudod megenni");
         }
     }
 
@@ -683,65 +880,53 @@ public class Controller {
      *               a spórákkal és a lépés különböző eseményeivel.
      */
     public void move(Insect insect, ITectonController tecton) {
+        if (deferToSession()) {
+            session.submitMove(insect, tecton);
+            return;
+        }
+
         if (round == 0)
             return;
 
         // Ő következik?
-        InsectPlayer insectPlayer = null;
-        for (InsectPlayer iPlayer : insectPlayers)
-            for (InsectAssociation insectA : iPlayer.getInsects())
-                if (insectA.getInsect() == insect)
-                    insectPlayer = iPlayer;
-
-        if (insectPlayer != currentPlayer) {
-            gPanel.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
+        InsectPlayer insectPlayer = getInsectPlayer(insect);
+
+        if (insectPlayer != current()) {
+            host.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
             return;
         }
 
         // Segéd objektumok
-        List<Spore> spores = tecton.getSpores();
+        Spore spore = tecton.peekSpore();
         InsectAssociation insectAssociation = insectPlayer.getInsectAssociation(insect);
 
         // Az ő rovarával akar lépni?
         if (insectAssociation == null) {
-            gPanel.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
+            host.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
             return;
         }
 
         // Tud lépni?
         if (insectAssociation.getMoved()) {
-            gPanel.showError("Már léptél ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
+            host.showError("Már léptél ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
             return;
         }
 
         // Lesz evés?
         boolean eat = false;
-        if (!spores.isEmpty())
+        if (spore != null)
             eat = true;
 
-        // Lépés
-        if (insect.move((Tecton) tecton)) {
+        // Lépés (foglalt tektonra nem lehet lépni, ezt a foglaltsági bitset azonnal megmondja)
+        if (!tecton.isOccupied() && insect.move((Tecton) tecton)) {
             insectAssociation.setMoved(true);
             if (eat) {
-                Spore spore = spores.get(0);
-
-                String str = null;
-                for (Map.Entry<String, Object> entry : objects.entrySet()) {
-                    if (entry.getValue().equals(spore)) {
-                        str = entry.getKey();
-                        break;
-                    }
-                }
-
-                objects.remove(str);
-                List<Spore> rm = new ArrayList<>();
-                rm.add(spores.get(0));
-                tecton.removeSpores(rm);
+                tecton.pollSpore();
                 insectPlayer.addPoint();
-                gPanel.repaint();
+                host.repaint();
             }
         } else {
-            gPanel.showError("A lépés sikertelen");
+            host.showError("A lépés sikertelen");
         }
 
         // Kapott effekt hatása
@@ -751,21 +936,21 @@ public class Controller {
         if (insect.getState().equals(SPEEDBOOST)) { // mintha nem is lépett volna
             insectAssociation.setMoved(false);
             insect.setState(NORMAL);
-            gPanel.showInformation("A rovar SPEEDBOOST állapotba került");
+            host.showInformation("A rovar SPEEDBOOST állapotba került");
         }
 
         if (insect.getState().equals(NOCUT)) { // nocut = mintha már vágott volna
             insectAssociation.setCut(true); // paralyzed = mintha már vágott és lépett is volna (az utóbbi igaz is)
-            gPanel.showInformation("A rovar NOCUT állapotba került");
+            host.showInformation("A rovar NOCUT állapotba került");
         }
 
         if (insect.getState().equals(PARALYZED)) {
             insectAssociation.setCut(true);
-            gPanel.showInformation("A rovar PARALYZED állapotba került");
+            host.showInformation("A rovar PARALYZED állapotba került");
         }
 
         if (insect.getState().equals(SLOWED)) {
-            gPanel.showInformation("A rovar SLOWED állapotba került");
+            host.showInformation("A rovar SLOWED állapotba került");
         }
     }
 
@@ -777,18 +962,19 @@ public class Controller {
      * @param tecton Az a tekton objektum, amelyen a vágást végre kell hajtani.
      */
     public void cut(Insect insect, ITectonController tecton) {
+        if (deferToSession()) {
+            session.submitCut(insect, tecton);
+            return;
+        }
+
         if (round == 0)
             return;
 
         // Ő következik?
-        InsectPlayer insectPlayer = null;
-        for (InsectPlayer iPlayer : insectPlayers)
-            for (InsectAssociation insectA : iPlayer.getInsects())
-                if (insectA.getInsect() == insect)
-                    insectPlayer = iPlayer;
-
-        if (insectPlayer != currentPlayer) {
-            gPanel.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
+        InsectPlayer insectPlayer = getInsectPlayer(insect);
+
+        if (insectPlayer != current()) {
+            host.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
             return;
         }
 
@@ -797,22 +983,137 @@ public class Controller {
 
         // Az ő rovarával akar vágni?
         if (insectAssociation == null) {
-            gPanel.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
+            host.showError("Ez nem a te rovarad, vagy nem jelöltél ki rovart");
             return;
         }
 
         // Tud vágni?
         if (insectAssociation.getCut()) {
-            gPanel.showError("Már vágtál ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
+            host.showError("Már vágtál ebben a körben, vagy olyan állapotban vagy, ami ezt nem engedi");
             return;
         }
 
         // Vágás
         if (insect.cut((Tecton) tecton)) {
             insectAssociation.setCut(true);
-            gPanel.repaint();
+            host.repaint();
         } else {
-            gPanel.showError("Sikertelen vágás");
+            host.showError("Sikertelen vágás");
+        }
+    }
+
+
+    /**
+     * Végrehajt egy lépésköteget. Előbb a köteg minden lépése ellenőrzésre
+     * kerül a köteg előtti állapot alapján (lásd CommandValidator); ha bármelyik
+     * lépés hibás, a köteg egyetlen lépése sem hajtódik végre, a hibás lépések
+     * a hiba okát, a többiek BATCH_REJECTED okot kapnak.
+     * <p>
+     * Helyes köteg esetén a lépések a megadott sorrendben, egyetlen menetben
+     * futnak le; a köteg alatt a modell változásai egy eseménykötegbe
+     * kerülnek, az üzenetek nem jelennek meg, hanem a lépések eredményébe
+     * kerülnek, és a megjelenítés a köteg végén legfeljebb egyszer frissül.
+     * Ha egy lépés a végrehajtáskor egy korábbi lépés hatása miatt mégsem
+     * sikerül, CONFLICT okkal sikertelen; a korábbi lépések érvényben maradnak.
+     *
+     * @param commands A végrehajtandó lépések.
+     * @return A lépések eredményei, a lépésekkel azonos sorrendben.
+     */
+    public List<CommandResult> submit(List<Command> commands) {
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        if (deferToSession()) {
+            for (Command command : commands)
+                results.add(new CommandResult(command, CommandResult.Reason.REAL_TIME,
+                        "Valós idejű módban a lépéseket a munkamenet fogadja"));
+            return results;
+        }
+
+        String[] messages = new String[commands.size()];
+        CommandResult.Reason[] reasons = validate(commands, messages);
+        boolean rejected = false;
+        for (CommandResult.Reason reason : reasons)
+            rejected |= reason != null;
+        if (rejected) {
+            for (int k = 0; k < commands.size(); k++) {
+                results.add(reasons[k] != null
+                        ? new CommandResult(commands.get(k), reasons[k], messages[k])
+                        : new CommandResult(commands.get(k), CommandResult.Reason.BATCH_REJECTED,
+                        "A köteg más lépése hibás, a köteg nem hajtódott végre"));
+            }
+            return results;
+        }
+
+        GameHost outer = host;
+        CapturingHost capture = new CapturingHost(outer);
+        host = capture;
+        graph.getEvents().beginBatch();
+        try {
+            for (Command command : commands) {
+                capture.reset();
+                execute(command);
+                String error = capture.getError();
+                results.add(error != null
+                        ? new CommandResult(command, CommandResult.Reason.CONFLICT, error)
+                        : new CommandResult(command, null, capture.getInformation()));
+            }
+        } finally {
+            host = outer;
+            graph.getEvents().endBatch();
+        }
+
+        if (capture.isDirty())
+            outer.repaint();
+        return results;
+    }
+
+
+    /**
+     * Ellenőrzi a köteg lépéseit a játék aktuális állapotában, a végrehajtás
+     * előtt. Az ellenőrzés a lehetséges lépések generátorát és a tulajdonosi
+     * indexet használja, és figyelembe veszi a köteg korábbi lépéseinek
+     * foglalásait is (például ugyanaz a rovar kétszer nem léphet).
+     *
+     * @param commands A köteg lépései.
+     * @param messages A hibás lépések hibaüzenetei kerülnek bele, a lépésekkel
+     *                 azonos sorrendben.
+     * @return A lépések hibáinak okai, a helyes lépéseknél null.
+     */
+    private CommandResult.Reason[] validate(List<Command> commands, String[] messages) {
+        CommandValidator validator = new CommandValidator(this, getLegalActions(), entities.getOwnership());
+        return validator.validate(commands, messages);
+    }
+
+
+    /**
+     * Végrehajt egy már ellenőrzött lépést a lépés fajtájának megfelelő
+     * Controller metódussal. Az esetleges hibát a metódus a megjelenítő
+     * környezeten keresztül jelzi.
+     *
+     * @param command A végrehajtandó lépés.
+     */
+    private void execute(Command command) {
+        switch (command.getType()) {
+            case MOVE:
+                move(command.getInsect(), command.getTecton());
+                break;
+            case CUT:
+                cut(command.getInsect(), command.getTecton());
+                break;
+            case BRANCH_THREAD:
+                branchThread(command.getTecton());
+                break;
+            case GROW_MUSHROOM:
+                growMushroom(command.getTecton());
+                break;
+            case SHOOT_SPORE:
+                shootSpore(command.getMushroom(), command.getTecton());
+                break;
+            case EAT_INSECT:
+                eatInsect(command.getInsect());
+                break;
+            case CLOSE_STEP:
+                closestep();
+                break;
         }
     }
 
@@ -843,9 +1144,9 @@ public class Controller {
                 break;
         }
 
-        String name = getNewTectonName();
-        objects.put(name, t);
+        objects.add(EntityKind.TECTON, t);
         tList.add(t);
+        graph.register(t);
         return t;
     }
 
@@ -895,7 +1196,7 @@ public class Controller {
                     points.add(Integer.parseInt(str[i]));
 
                 Tecton t = createTecton(str[str.length - 1]);
-                gPanel.addTecton(points, t, str[str.length - 1]);
+                host.addTecton(points, t, str[str.length - 1]);
             }
 
             while ((line = br.readLine()) != null) {
@@ -915,71 +1216,66 @@ public class Controller {
      */
     public void closestep() {
         setCurrentPlayer();
-        gPanel.repaint();
+        host.repaint();
     }
 
 
     /**
      * Beállítja az aktuális játékost a játékmenetben, figyelembe véve a gombász és
      * rovarász játékosok listáját.
-     * A metódus ellenőrzi, hogy a jelenlegi játékos megtalálható-e a gombász vagy
-     * rovarász játékosok között.
-     * Ezen információ alapján lépteti előre az aktuális játékost a lista alapján,
-     * vagy visszaáll a lista elejére,
-     * ha elérte a lista végét. Ha szükséges, új kört is inicializál.
+     * A következő játékost a játékosok előre elkészített sorrendje adja: a
+     * gombászok után a rovarászok jönnek, az utolsó után pedig új kör
+     * kezdődik. Ha a lépés gombászról rovarászra kerül, vagy új kör kezdődik,
+     * a játék állapota is frissül.
+     * <p>
+     * A léptetés után a Controller a megjelenítő környezet üresjárati idejére
+     * ütemezi a soron következő játékos lehetséges lépéseinek előkészítését.
      */
     public void setCurrentPlayer() {
-        int indexCurrentPlayer = -1;
-
-        if (fungusPlayers.contains(currentPlayer)) {
-            for (int i = 0; i < fungusPlayers.size(); i++) {
-                if (currentPlayer.equals(fungusPlayers.get(i))) {
-                    indexCurrentPlayer = i;
-                }
-            }
-
-            if (indexCurrentPlayer == fungusPlayers.size() - 1) {
-                if (!insectPlayers.isEmpty()) {
-                    currentPlayer = insectPlayers.get(0);
-
-                    if (gPanel.getState() == GameState.PUTFIRSTMUSHROOM) {
-                        gPanel.setState(GameState.PUTFIRSTINSECT);
-                    } else {
-                        gPanel.setState(GameState.WAITINSECTCOMMAND);
-                    }
-
-                } else {
-                    currentPlayer = fungusPlayers.get(0);
-
-                    gPanel.setState(GameState.WAITFUNGALCOMMAND);
-                    initRound();
-                }
+        Player next = turns.next(currentPlayer);
+        if (next == null) {
+            return;
+        }
+        boolean newRound = turns.isLast(currentPlayer);
+        boolean toInsects = currentPlayer instanceof FungusPlayer && next instanceof InsectPlayer;
+        currentPlayer = next;
+
+        if (newRound) {
+            host.setState(next instanceof FungusPlayer ? GameState.WAITFUNGALCOMMAND : GameState.WAITINSECTCOMMAND);
+            initRound();
+        } else if (toInsects) {
+            if (host.getState() == GameState.PUTFIRSTMUSHROOM) {
+                host.setState(GameState.PUTFIRSTINSECT);
             } else {
-                currentPlayer = fungusPlayers.get(indexCurrentPlayer + 1);
+                host.setState(GameState.WAITINSECTCOMMAND);
             }
+        }
 
-        } else if (insectPlayers.contains(currentPlayer) && indexCurrentPlayer == -1) {
-            for (int i = 0; i < insectPlayers.size(); i++) {
-                if (currentPlayer.equals(insectPlayers.get(i))) {
-                    indexCurrentPlayer = i;
-                }
-            }
-            if (indexCurrentPlayer == insectPlayers.size() - 1) {
-                if (!fungusPlayers.isEmpty()) {
-                    currentPlayer = fungusPlayers.get(0);
+        speculate(turns.advance());
+    }
 
-                    gPanel.setState(GameState.WAITFUNGALCOMMAND);
 
-                    initRound();
-                } else {
-                    currentPlayer = insectPlayers.get(0);
-                    gPanel.setState(GameState.WAITINSECTCOMMAND);
-                    initRound();
-                }
-            } else {
-                currentPlayer = insectPlayers.get(indexCurrentPlayer + 1);
-            }
+    /**
+     * A megjelenítő környezet üresjárati idejére ütemezi a soron lévő és az
+     * őt követő játékos lehetséges lépéseinek előkészítését, amíg a soron lévő
+     * játékos gondolkodik. Az előkészítés csak gyorsítótárakat tölt fel,
+     * amelyeket a modell eseményei érvénytelenítenek, így a soron lévő játékos
+     * lépései után is helyes marad; ha a lépés közben már továbbkerült, az
+     * előkészítés elmarad.
+     *
+     * @param generation A lépés generációja, amelyre az előkészítés vonatkozik.
+     */
+    private void speculate(int generation) {
+        if (legalActions == null) {
+            return;
         }
+        host.runWhenIdle(() -> {
+            if (generation != turns.getGeneration() || legalActions == null) {
+                return;
+            }
+            legalActions.prepare(currentPlayer);
+            legalActions.prepare(turns.next(currentPlayer));
+        });
     }
 
 
@@ -990,187 +1286,217 @@ public class Controller {
      * kevesebb-e, mint a maximális körszám. Ha igen, a metódus több alfolyamatot
      * hajt végre a szereplők állapotának frissítése és az események kezelése
      * érdekében.
+     * <p>
+     * A kör fázisai a roundPhases listában, rögzített sorrendben futnak le. Az
+     * időhöz kötött szabályok (fonálrészek megszűnése, gombák fejlődése,
+     * spóratermelés, felszívás és törés) az ütemezőben várakoznak, egy fázis
+     * csak az esedékes eseményeket futtatja le. A fonalak levágandó részeinek
+     * kiszámolása és a spóratermelés fonalanként, illetve játékosonként
+     * párhuzamosan fut; a közös tektonokat érintő levételek a játékosok
+     * sorrendjében történnek, így a kör eredménye a soros futáséval azonos.
      */
     public void initRound() {
+        // a kör összes változása egy eseménykötegként jut el a figyelőkhöz
+        graph.getEvents().beginBatch();
         round++;
+        entities.setRound(round);
 
         if (round < maxRound) {
-            for (FungusPlayer fungPlayer : fungusPlayers) {
-                fungPlayer.getThread().timeCheck();
+            scheduler.advance(round);
+            for (Runnable phase : roundPhases) {
+                phase.run();
             }
+        } else {
+            host.endGame();
+        }
+        graph.getEvents().endBatch();
+    }
 
-            for (InsectPlayer insPlayer : insectPlayers) {
-                for (InsectAssociation insectA : insPlayer.getInsects()) {
-                    InsectState state = insectA.getInsect().getState();
-                    if (state == SLOWED) {
-                        insectA.setMoved(true);
-                        insectA.setCut(false);
-                        insectA.getInsect().setState(NORMAL);
-                    } else if (state == PARALYZED) {
-                        insectA.setMoved(true);
-                        insectA.setCut(true);
-                        insectA.getInsect().setState(NORMAL);
-                    } else if (state == NOCUT) {
-                        insectA.setMoved(false);
-                        insectA.setCut(true);
-                        insectA.getInsect().setState(NORMAL);
-                    } else if (state == DIVIDED) {
-                        insectA.setMoved(false);
-                        insectA.setCut(false);
-                        insectA.getInsect().setState(NORMAL);
-                    } else if (state == SPEEDBOOST) {
-                        insectA.getInsect().setState(NORMAL);
-                    } else if (state == NORMAL) {
-                        insectA.setMoved(false);
-                        insectA.setCut(false);
-                    }
-                }
+
+    /**
+     * A kör első fázisa: az elvágott fonálrészek megszűnése, majd a
+     * gombatesthez már nem kapcsolódó részek levágása. A levágandó részeket a
+     * fonalak párhuzamosan határozzák meg, a levétel a játékosok sorrendjében
+     * történik.
+     */
+    private void decayThreads() {
+        scheduler.runDue(FungalThread.DECAY_PHASE);
+
+        List<FungalThread> threads = new ArrayList<>(fungusPlayers.size());
+        for (FungusPlayer fungPlayer : fungusPlayers) {
+            threads.add((FungalThread) fungPlayer.getThread());
+        }
+        FungalThread.timeCheckAll(threads);
+    }
+
+
+    /**
+     * A kör második fázisa: a rovarok lépett/vágott jelzői és állapota
+     * egyetlen tömbös menetben, valamint a gombászok elágaztatási jelzője.
+     */
+    private void resetTurnFlags() {
+        entities.startInsectRound();
+
+        for (FungusPlayer fungPlayer : fungusPlayers) {
+            fungPlayer.setBranchThread(false);
+        }
+    }
+
+
+    /**
+     * Ütemezi a játékos legutóbb hozzáadott gombájának fejlődését: a gomba
+     * EVOLVE_AGE kör elteltével fejlett állapotba kerül.
+     *
+     * @param player A játékos, akinek a gombáját ütemezni kell.
+     */
+    private void scheduleEvolve(FungusPlayer player) {
+        MushroomAssociation mushA = player.getMushroomAt(player.getMushrooms().size() - 1);
+        IMushroomController mushroom = mushA.getMushroom();
+        scheduler.schedule(round + EVOLVE_AGE, EVOLVE_PHASE, () -> {
+            // az elpusztult gomba helyét a tár már másnak adhatta
+            if (mushA.getMushroom() == mushroom) {
+                mushA.setEvolved(true);
+                mushroom.evolve();
             }
+        });
+    }
 
-            for (FungusPlayer fungPlayer : fungusPlayers) {
-                fungPlayer.setBranchThread(false);
 
-                for (MushroomAssociation mushA : fungPlayer.getMushrooms()) {
-                    mushA.setAge(mushA.getAge() + 1);
-                    if (mushA.getAge() >= 5) {
-                        mushA.getMushroom().evolve();
-                    }
+    /**
+     * Minden gomba egy új spórát termel, majd a következő termelés
+     * SPORE_PERIOD kör múlva kerül sorra. A spórák fajtái a gombák sorrendjében
+     * sorsolódnak ki, a gombákba kerülésük játékosonként párhuzamosan fut.
+     */
+    private void produceSpores() {
+        SporeType[][] types = new SporeType[fungusPlayers.size()][];
+        for (int p = 0; p < types.length; p++) {
+            types[p] = new SporeType[fungusPlayers.get(p).getMushrooms().size()];
+            for (int k = 0; k < types[p].length; k++) {
+                types[p][k] = randomize ? randomSporeType() : SporeType.SPEED;
+            }
+        }
+        SporeProduction.produceAll(fungusPlayers, types);
+        scheduler.schedule(round + SPORE_PERIOD, SPORE_PHASE, this::produceSpores);
+    }
 
-                    if (round % 2 == 0) {
-                        Spore spore = null;
-                        if (randomize) {
-                            int randNum = randomize(5);
-
-                            switch (randNum) {
-                                case 0: {
-                                    spore = new SlowingSpore();
-                                    break;
-                                }
-
-                                case 1: {
-                                    spore = new SpeedSpore();
-                                    break;
-                                }
-
-                                case 2: {
-                                    spore = new ParalysingSpore();
-                                    break;
-                                }
-
-                                case 3: {
-                                    spore = new NoCutSpore();
-                                    break;
-                                }
-
-                                case 4: {
-                                    spore = new DividingSpore();
-                                    break;
-                                }
-
-                                default: {
-                                    spore = new SpeedSpore();
-                                    break;
-                                }
-                            }
-
-                        } else {
-                            spore = new SpeedSpore();
-                        }
-
-                        mushA.getMushroom().generateSpore(spore);
-                        objects.put(getNewSporeName(), spore);
-                    }
-                }
+
+    /**
+     * Kisorsol egy spórafajtát.
+     *
+     * @return A spóra fajtája.
+     */
+    private SporeType randomSporeType() {
+        int randNum = randomize(5);
+
+        switch (randNum) {
+            case 0: {
+                return SporeType.SLOWING;
             }
 
-            if (round % 4 == 0) {
-                for (ITectonController tecton : tList)
-                    tecton.absorb();
+            case 1: {
+                return SporeType.SPEED;
+            }
 
-                int rnumb = randomize(tList.size() - 1);
-                if (!breakTecton((Tecton) tList.get(rnumb))) {
-                    rnumb = randomize(tList.size() - 1);
-                    breakTecton((Tecton) tList.get(rnumb));
-                }
+            case 2: {
+                return SporeType.PARALYSING;
             }
-        } else {
-            gPanel.endGame();
+
+            case 3: {
+                return SporeType.NOCUT;
+            }
+
+            case 4: {
+                return SporeType.DIVIDING;
+            }
+
+            default: {
+                return SporeType.SPEED;
+            }
+        }
+    }
+
+
+    /**
+     * A felszívó tektonok felszívják a rajtuk lévő fonalakat, majd egy
+     * véletlenszerű tekton kettétörik. A következő alkalom TECTON_PERIOD kör
+     * múlva kerül sorra. A felszívás csak a fonalat tartó felszívó tektonokat
+     * érinti, ezeket a gráf tartja nyilván.
+     */
+    private void absorbAndBreak() {
+        graph.absorbAll();
+
+        // a törhető tektonok közül választok, így a törés mindig sikerül, ha
+        // van törhető tekton
+        int count = graph.breakableCount();
+        if (count > 0) {
+            breakTecton(graph.getBreakable(randomize(count)));
         }
+        scheduler.schedule(round + TECTON_PERIOD, TECTON_PHASE, this::absorbAndBreak);
     }
 
 
     /**
      * Új gomba név generálása növekvő sorszám alapján.
-     * A metódus növeli a mushroomCount mező értékét, és az értéket
-     * kombinálja az "m" előtaggal az új név előállításához.
+     * A metódus lefoglalja a gombák következő sorszámát a nyilvántartásban,
+     * és az értéket kombinálja az "m" előtaggal az új név előállításához.
      *
      * @return Az újonnan generált gomba név, amely "m" előtagból és a megnövelt
      *         számból áll.
      */
     public String getNewMushroomName() {
-        mushroomCount++;
-        String name = "m" + mushroomCount;
-        return name;
+        return objects.nextName(EntityKind.MUSHROOM);
     }
 
 
     /**
      * Új fonál név generálása növekvő sorszám alapján.
-     * A metódus növeli a fungalThreadCount mező értékét, és az értéket
-     * kombinálja az "f" előtaggal az új név előállításához.
+     * A metódus lefoglalja a fonalak következő sorszámát a nyilvántartásban,
+     * és az értéket kombinálja az "f" előtaggal az új név előállításához.
      *
      * @return Az újonnan generált fonál név, amely "f" előtagból és a megnövelt
      *         számból áll.
      */
     public String getNewThreadName() {
-        fungalThreadCount++;
-        String name = "f" + fungalThreadCount;
-        return name;
+        return objects.nextName(EntityKind.THREAD);
     }
 
 
     /**
      * Új spóra név generálása növekvő sorszám alapján.
-     * A sporeCount változó értékét egyesével növeli,
+     * A spórák következő sorszámát lefoglalja a nyilvántartásban,
      * majd az értéket kombinálja az "s" előtaggal az új név előállításához.
      *
      * @return Az újonnan generált spóra név, amely "s" előtagból és a megnövelt
      *         számból áll.
      */
     public String getNewSporeName() {
-        sporeCount++;
-        String name = "s" + sporeCount;
-        return name;
+        return objects.nextName(EntityKind.SPORE);
     }
 
 
     /**
      * Új rovar név generálása növekvő sorszám alapján.
-     * A metódus növeli az insectCount mező értékét, majd az értéket
-     * kombinálja az "i" előtaggal az új név előállításához.
+     * A metódus lefoglalja a rovarok következő sorszámát a nyilvántartásban,
+     * majd az értéket kombinálja az "i" előtaggal az új név előállításához.
      *
      * @return Az új generált rovar név, amely "i" előtagból és a megemelt számból
      *         áll.
      */
     public String getNewInsectName() {
-        insectCount++;
-        String name = "i" + insectCount;
-        return name;
+        return objects.nextName(EntityKind.INSECT);
     }
 
 
     /**
      * Új tecton név generálása növekvő sorszám alapján.
-     * A tectonCount mező értékét egyesével növeli és azt használja
-     * az új név előállításához a "t" előtaggal kombinálva.
+     * A tektonok következő sorszámát lefoglalja a nyilvántartásban, és azt
+     * használja az új név előállításához a "t" előtaggal kombinálva.
      *
      * @return A generált új tecton név, amely "t" előtagból és a megemelt számból
      *         áll.
      */
     public String getNewTectonName() {
-        tectonCount++;
-        String name = "t" + tectonCount;
-        return name;
+        return objects.nextName(EntityKind.TECTON);
     }
 
 
@@ -1186,7 +1512,7 @@ public class Controller {
      */
     public int randomize(int domain) {
         if (randomize) {
-            return (gPanel.randomize() % domain);
+            return random.nextInt(domain);
         } else {
             return 0;
         }
@@ -0,0 +1,107 @@
+package controller;
+
+import java.util.List;
+
+import model.DeferredEffects;
+import model.Insect;
+import model.Mushroom;
+import model.Tecton;
+
+
+/**
+ * A DeferredHost a valós idejű ütem párhuzamos szakaszában áll a Controller
+ * és a valódi GameHost közé. A jelzéseket nem továbbítja azonnal, hanem a
+ * hívó lépés DeferredEffects gyűjtőjébe teszi, így azok a lépések
+ * visszajátszásakor, a játék szálán és rögzített sorrendben érkeznek meg.
+ */
+class DeferredHost implements GameHost {
+
+    private final GameHost target;
+
+
+    /**
+     * @param target A valódi megjelenítő környezet.
+     */
+    DeferredHost(GameHost target) {
+        this.target = target;
+    }
+
+
+    @Override
+    public void showError(String str) {
+        DeferredEffects.current().defer(() -> target.showError(str));
+    }
+
+
+    @Override
+    public void showInformation(String str) {
+        DeferredEffects.current().defer(() -> target.showInformation(str));
+    }
+
+
+    @Override
+    public void repaint() {
+        DeferredEffects.current().defer(target::repaint);
+    }
+
+
+    @Override
+    public void setState(GameState state) {
+        DeferredEffects.current().defer(() -> target.setState(state));
+    }
+
+
+    @Override
+    public GameState getState() {
+        return target.getState();
+    }
+
+
+    @Override
+    public void endGame() {
+        DeferredEffects.current().defer(target::endGame);
+    }
+
+
+    @Override
+    public void addTecton(List<Integer> points, Tecton t, String type) {
+        DeferredEffects.current().defer(() -> target.addTecton(points, t, type));
+    }
+
+
+    @Override
+    public void breakTecton(Tecton source, Tecton created1, Tecton created2) {
+        DeferredEffects.current().defer(() -> target.breakTecton(source, created1, created2));
+    }
+
+
+    @Override
+    public void addMushroom(Mushroom m) {
+        DeferredEffects.current().defer(() -> target.addMushroom(m));
+    }
+
+
+    @Override
+    public void removeMushroom(Mushroom m) {
+        DeferredEffects.current().defer(() -> target.removeMushroom(m));
+    }
+
+
+    @Override
+    public void addInsect(Insect i) {
+        DeferredEffects.current().defer(() -> target.addInsect(i));
+    }
+
+
+    @Override
+    public void removeInsect(Insect i) {
+        DeferredEffects.current().defer(() -> target.removeInsect(i));
+    }
+
+
+    @Override
+    public void runWhenIdle(Runnable task) {
+        DeferredEffects.current().defer(() -> target.runWhenIdle(task));
+    }
+
+}
@@ -0,0 +1,30 @@
+package controller;
+
+/**
+ * Az EntityKind a játék nyilvántartott objektumainak fajtáit sorolja fel. A
+ * generált nevű fajtáknak egy-egy betűs előtagjuk van, a nevük az előtagból
+ * és a fajtán belüli sorszámból áll (például "t3"); a játékosok nevét a
+ * felhasználó adja meg.
+ */
+public enum EntityKind {
+    PLAYER(null),
+    TECTON("t"),
+    MUSHROOM("m"),
+    THREAD("f"),
+    SPORE("s"),
+    INSECT("i");
+
+    private final String prefix;
+
+    EntityKind(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * @return A generált nevek előtagja, vagy null, ha a fajta neveit a
+     * felhasználó adja meg.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+}
@@ -0,0 +1,285 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+
+/**
+ * Az EntityRegistry a játék elnevezett objektumait (játékosok, tektonok,
+ * gombák, fonalak, spórák, rovarok) tartja nyilván. Minden objektum egy
+ * sűrű, egész azonosítót kap; az objektum név, azonosító és az objektum
+ * maga alapján is állandó időben kereshető, és a nyilvántartás fajtánként
+ * bejárható.
+ * <p>
+ * A generált nevű fajtáknál a név nem tárolódik: az objektum csak a fajtán
+ * belüli sorszámát kapja meg, a név szövege csak lekérdezéskor áll elő, és
+ * név szerinti keresésnél a név előtagjából és sorszámából kerül vissza az
+ * azonosító. A felhasználó által megadott neveket (játékosok) egy külön
+ * tábla tárolja.
+ * <p>
+ * Az azonosítók nem kerülnek újra kiosztásra, így egy fajta bejárása a
+ * felvétel sorrendjében történik.
+ */
+public class EntityRegistry {
+
+    private static final int KINDS = EntityKind.values().length;
+
+    private Object[] entities;
+    private byte[] kinds;
+    private int[] numbers;
+    private int size;
+    private final IdentityHashMap<Object, Integer> ids;
+    private final Map<String, Integer> namedIds;
+    private final Map<Integer, String> playerNames;
+
+    private final int[][] byNumber;
+    private final int[] counters;
+    private final BitSet[] live;
+
+
+    /**
+     * Létrehoz egy üres nyilvántartást.
+     */
+    public EntityRegistry() {
+        entities = new Object[64];
+        kinds = new byte[64];
+        numbers = new int[64];
+        size = 0;
+        ids = new IdentityHashMap<>();
+        namedIds = new HashMap<>();
+        playerNames = new HashMap<>();
+
+        byNumber = new int[KINDS][16];
+        counters = new int[KINDS];
+        live = new BitSet[KINDS];
+        for (int k = 0; k < KINDS; k++) {
+            live[k] = new BitSet();
+        }
+    }
+
+
+    /**
+     * Felvesz egy objektumot a fajtája következő generált nevével.
+     *
+     * @param kind A fajta, amelynek generált nevei vannak.
+     * @param o    A felveendő objektum.
+     * @return Az objektum azonosítója.
+     */
+    public int add(EntityKind kind, Object o) {
+        if (kind.getPrefix() == null) {
+            throw new IllegalArgumentException("A(z) " + kind + " fajta nevét meg kell adni");
+        }
+        int k = kind.ordinal();
+        int number = ++counters[k];
+        int id = put(kind, number, o);
+        if (number >= byNumber[k].length) {
+            byNumber[k] = Arrays.copyOf(byNumber[k], Math.max(number + 1, byNumber[k].length * 2));
+        }
+        byNumber[k][number] = id + 1;
+        return id;
+    }
+
+
+    /**
+     * Felvesz egy játékost a megadott névvel. Ha a név már foglalt, a korábbi
+     * objektum kikerül a nyilvántartásból.
+     *
+     * @param name A játékos neve.
+     * @param o    A felveendő játékos.
+     * @return A játékos azonosítója.
+     */
+    public int add(String name, Object o) {
+        Integer old = namedIds.get(name);
+        if (old != null) {
+            remove(entities[old]);
+        }
+        int id = put(EntityKind.PLAYER, -1, o);
+        namedIds.put(name, id);
+        playerNames.put(id, name);
+        return id;
+    }
+
+
+    /**
+     * Kiveszi az objektumot a nyilvántartásból.
+     *
+     * @param o A kiveendő objektum.
+     * @return true, ha az objektum a nyilvántartásban volt.
+     */
+    public boolean remove(Object o) {
+        Integer boxed = ids.remove(o);
+        if (boxed == null) {
+            return false;
+        }
+        int id = boxed;
+        int k = kinds[id];
+        live[k].clear(id);
+        if (numbers[id] >= 0) {
+            byNumber[k][numbers[id]] = 0;
+        } else {
+            namedIds.remove(playerNames.remove(id));
+        }
+        entities[id] = null;
+        return true;
+    }
+
+
+    /**
+     * @param o A keresett objektum.
+     * @return true, ha az objektum a nyilvántartásban van.
+     */
+    public boolean contains(Object o) {
+        return ids.containsKey(o);
+    }
+
+
+    /**
+     * @param o A keresett objektum.
+     * @return Az objektum azonosítója, vagy -1, ha nincs a nyilvántartásban.
+     */
+    public int idOf(Object o) {
+        Integer id = ids.get(o);
+        return id == null ? -1 : id;
+    }
+
+
+    /**
+     * @param id Az objektum azonosítója.
+     * @return Az azonosítóhoz tartozó objektum, vagy null.
+     */
+    public Object get(int id) {
+        return id < 0 || id >= size ? null : entities[id];
+    }
+
+
+    /**
+     * Megkeresi az objektumot a neve alapján.
+     *
+     * @param name Az objektum neve.
+     * @return A névhez tartozó objektum, vagy null.
+     */
+    public Object get(String name) {
+        Integer id = namedIds.get(name);
+        if (id != null) {
+            return entities[id];
+        }
+        if (name == null || name.length() < 2) {
+            return null;
+        }
+        EntityKind kind = kindOf(name.charAt(0));
+        if (kind == null) {
+            return null;
+        }
+        int number = parseNumber(name);
+        int[] index = byNumber[kind.ordinal()];
+        if (number <= 0 || number >= index.length || index[number] == 0) {
+            return null;
+        }
+        return entities[index[number] - 1];
+    }
+
+
+    /**
+     * Visszaadja az objektum nevét; a generált neveket itt állítja elő.
+     *
+     * @param o A keresett objektum.
+     * @return Az objektum neve, vagy null, ha nincs a nyilvántartásban.
+     */
+    public String nameOf(Object o) {
+        Integer boxed = ids.get(o);
+        if (boxed == null) {
+            return null;
+        }
+        int id = boxed;
+        if (numbers[id] < 0) {
+            return playerNames.get(id);
+        }
+        return EntityKind.values()[kinds[id]].getPrefix() + numbers[id];
+    }
+
+
+    /**
+     * Visszaadja a fajta következő generált nevét, és lefoglalja a sorszámát.
+     *
+     * @param kind A fajta.
+     * @return A következő név.
+     */
+    public String nextName(EntityKind kind) {
+        return kind.getPrefix() + ++counters[kind.ordinal()];
+    }
+
+
+    /**
+     * @param kind A fajta.
+     * @return A fajta nyilvántartott objektumainak száma.
+     */
+    public int size(EntityKind kind) {
+        return live[kind.ordinal()].cardinality();
+    }
+
+
+    /**
+     * Bejárja a fajta nyilvántartott objektumait a felvétel sorrendjében.
+     *
+     * @param kind   A fajta.
+     * @param action Az objektumokra végrehajtandó művelet.
+     */
+    public void forEach(EntityKind kind, Consumer<Object> action) {
+        BitSet set = live[kind.ordinal()];
+        for (int id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1)) {
+            action.accept(entities[id]);
+        }
+    }
+
+
+    private int put(EntityKind kind, int number, Object o) {
+        if (ids.containsKey(o)) {
+            remove(o);
+        }
+        if (size == entities.length) {
+            int cap = entities.length * 2;
+            entities = Arrays.copyOf(entities, cap);
+            kinds = Arrays.copyOf(kinds, cap);
+            numbers = Arrays.copyOf(numbers, cap);
+        }
+        int id = size++;
+        entities[id] = o;
+        kinds[id] = (byte) kind.ordinal();
+        numbers[id] = number;
+        ids.put(o, id);
+        live[kind.ordinal()].set(id);
+        return id;
+    }
+
+
+    private static EntityKind kindOf(char c) {
+        for (EntityKind kind : EntityKind.values()) {
+            String prefix = kind.getPrefix();
+            if (prefix != null && prefix.charAt(0) == c) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+
+    private static int parseNumber(String name) {
+        if (name.charAt(1) == '0') {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || number > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+}
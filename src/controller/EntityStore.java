@@ -0,0 +1,403 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import model.IInsectController;
+import model.IMushroomController;
+import model.InsectState;
+import model.InsectStateColumn;
+
+
+/**
+ * Az EntityStore a rovarok és gombák körönkénti nyilvántartását tárolja
+ * oszloponként (struct of arrays): minden adat egy-egy primitív tömbben vagy
+ * bitsetben van, amelyet a rovar vagy gomba helyének (slot) sorszáma indexel.
+ * <p>
+ * Rovaronként a tulajdonos játékos sorszáma és az állapot kódja tömbben, a
+ * lépett és vágott jelzők bitsetben vannak. Az állapotoszlop a hiteles: a tárba
+ * felvett rovar az állapotát ide írja és innen olvassa, így a spórák hatása is
+ * ide kerül, a körkezdő menet pedig csak a primitív tömböt járja be. A rovar
+ * pozícióját a tektonok kezelik, azt a tár nem tárolja.
+ * Gombánként a tulajdonos és a születés köre tömbben, a fejlettség jelzője
+ * bitsetben; az életkor a tár aktuális köréből számolódik.
+ * Az InsectAssociation és a MushroomAssociation csak egy-egy hely kezelője.
+ * <p>
+ * A felszabaduló helyeket a tár újra kiosztja, az élő helyeket egy-egy bitset
+ * jelöli.
+ * <p>
+ * A lépett és vágott jelzők bitsetjének szavain több rovar osztozik, ezért a
+ * jelzők elérése szinkronizált: a valós idejű ütem párhuzamos szakaszában
+ * különböző szálakon futó lépések is írhatják őket.
+ */
+public class EntityStore implements InsectStateColumn {
+
+    private static final InsectState[] STATES = InsectState.values();
+    private static final byte SPEEDBOOST = (byte) InsectState.SPEEDBOOST.ordinal();
+    private static final byte SLOWED = (byte) InsectState.SLOWED.ordinal();
+    private static final byte PARALYZED = (byte) InsectState.PARALYZED.ordinal();
+    private static final byte NOCUT = (byte) InsectState.NOCUT.ordinal();
+    private static final byte NORMAL = (byte) InsectState.NORMAL.ordinal();
+
+    private IInsectController[] insects;
+    private int[] insectOwner;
+    private byte[] insectState;
+    private final BitSet insectLive;
+    private final BitSet moved;
+    private final BitSet cut;
+    private final BitSet slowed;
+    private final BitSet paralyzed;
+    private final BitSet nocut;
+    private final BitSet speedboost;
+
+    private IMushroomController[] mushrooms;
+    private int[] mushroomOwner;
+    private int[] mushroomBirth;
+    private final BitSet mushroomLive;
+    private final BitSet evolved;
+
+    private final OwnershipIndex ownership;
+    private int round;
+
+
+    /**
+     * Létrehoz egy üres tárat.
+     */
+    public EntityStore() {
+        insects = new IInsectController[16];
+        insectOwner = new int[16];
+        insectState = new byte[16];
+        insectLive = new BitSet();
+        moved = new BitSet();
+        cut = new BitSet();
+        slowed = new BitSet();
+        paralyzed = new BitSet();
+        nocut = new BitSet();
+        speedboost = new BitSet();
+
+        mushrooms = new IMushroomController[16];
+        mushroomOwner = new int[16];
+        mushroomBirth = new int[16];
+        mushroomLive = new BitSet();
+        evolved = new BitSet();
+
+        ownership = new OwnershipIndex();
+        round = 0;
+    }
+
+
+    /**
+     * Visszaadja a tár objektumainak tulajdonosi indexét. Az index a helyek
+     * felszabadításakor és a helyen lévő objektum cseréjekor frissül.
+     *
+     * @return A tulajdonosi index.
+     */
+    public OwnershipIndex getOwnership() {
+        return ownership;
+    }
+
+
+    /**
+     * Helyet foglal egy rovarnak, és a rovar állapotát a tár oszlopába
+     * kapcsolja.
+     *
+     * @param i     A rovar.
+     * @param owner A tulajdonos játékos sorszáma.
+     * @return A rovar helyének sorszáma.
+     */
+    public int addInsect(IInsectController i, int owner) {
+        int slot = insectLive.nextClearBit(0);
+        if (slot == insects.length) {
+            int cap = insects.length * 2;
+            insects = Arrays.copyOf(insects, cap);
+            insectOwner = Arrays.copyOf(insectOwner, cap);
+            insectState = Arrays.copyOf(insectState, cap);
+        }
+        insectLive.set(slot);
+        insects[slot] = i;
+        insectOwner[slot] = owner;
+        moved.clear(slot);
+        cut.clear(slot);
+        attach(slot, i);
+        return slot;
+    }
+
+
+    /**
+     * Felszabadítja a rovar helyét. A rovar állapota visszakerül a rovarba.
+     *
+     * @param slot A rovar helyének sorszáma.
+     */
+    public void removeInsect(int slot) {
+        insects[slot].detach();
+        ownership.remove(insects[slot]);
+        insectLive.clear(slot);
+        insects[slot] = null;
+        moved.clear(slot);
+        cut.clear(slot);
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return A helyen lévő rovar.
+     */
+    public IInsectController getInsect(int slot) {
+        return insects[slot];
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @param i    A helyre kerülő rovar.
+     */
+    public void setInsect(int slot, IInsectController i) {
+        insects[slot].detach();
+        ownership.replace(insects[slot], i);
+        insects[slot] = i;
+        attach(slot, i);
+    }
+
+
+    /**
+     * Az oszlop helyére írja a rovar állapotát, és a rovart az oszlophoz
+     * kapcsolja.
+     */
+    private void attach(int slot, IInsectController i) {
+        insectState[slot] = (byte) i.getState().ordinal();
+        i.attach(this, slot);
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return A rovar állapota.
+     */
+    @Override
+    public InsectState getState(int slot) {
+        return STATES[insectState[slot]];
+    }
+
+
+    /**
+     * @param slot  A rovar helyének sorszáma.
+     * @param state A rovar új állapota.
+     */
+    @Override
+    public void setState(int slot, InsectState state) {
+        insectState[slot] = (byte) state.ordinal();
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return A rovar tulajdonosának sorszáma.
+     */
+    public int getInsectOwner(int slot) {
+        return insectOwner[slot];
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return true, ha a rovar ebben a körben már lépett.
+     */
+    public synchronized boolean isMoved(int slot) {
+        return moved.get(slot);
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @param m    A lépett jelző új értéke.
+     */
+    public synchronized void setMoved(int slot, boolean m) {
+        moved.set(slot, m);
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return true, ha a rovar ebben a körben már vágott.
+     */
+    public synchronized boolean isCut(int slot) {
+        return cut.get(slot);
+    }
+
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @param c    A vágott jelző új értéke.
+     */
+    public synchronized void setCut(int slot, boolean c) {
+        cut.set(slot, c);
+    }
+
+
+    /**
+     * Helyet foglal egy gombának.
+     *
+     * @param m     A gomba.
+     * @param owner A tulajdonos játékos sorszáma.
+     * @return A gomba helyének sorszáma.
+     */
+    public int addMushroom(IMushroomController m, int owner) {
+        int slot = mushroomLive.nextClearBit(0);
+        if (slot == mushrooms.length) {
+            int cap = mushrooms.length * 2;
+            mushrooms = Arrays.copyOf(mushrooms, cap);
+            mushroomOwner = Arrays.copyOf(mushroomOwner, cap);
+            mushroomBirth = Arrays.copyOf(mushroomBirth, cap);
+        }
+        mushroomLive.set(slot);
+        mushrooms[slot] = m;
+        mushroomOwner[slot] = owner;
+        mushroomBirth[slot] = round;
+        evolved.clear(slot);
+        return slot;
+    }
+
+
+    /**
+     * Felszabadítja a gomba helyét.
+     *
+     * @param slot A gomba helyének sorszáma.
+     */
+    public void removeMushroom(int slot) {
+        ownership.remove(mushrooms[slot]);
+        mushroomLive.clear(slot);
+        mushrooms[slot] = null;
+        evolved.clear(slot);
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @return A helyen lévő gomba.
+     */
+    public IMushroomController getMushroom(int slot) {
+        return mushrooms[slot];
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @param m    A helyre kerülő gomba.
+     */
+    public void setMushroom(int slot, IMushroomController m) {
+        ownership.replace(mushrooms[slot], m);
+        mushrooms[slot] = m;
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @return A gomba tulajdonosának sorszáma.
+     */
+    public int getMushroomOwner(int slot) {
+        return mushroomOwner[slot];
+    }
+
+
+    /**
+     * Beállítja az aktuális kört, amelyhez a gombák életkora viszonyul. A
+     * Controller minden kör elején hívja.
+     *
+     * @param round Az aktuális kör.
+     */
+    public void setRound(int round) {
+        this.round = round;
+    }
+
+
+    /**
+     * @return Az aktuális kör.
+     */
+    public int getRound() {
+        return round;
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @return A gomba életkora körökben: a születése óta eltelt körök száma.
+     */
+    public int getAge(int slot) {
+        return round - mushroomBirth[slot];
+    }
+
+
+    /**
+     * A születés körét úgy állítja be, hogy a gomba életkora az aktuális
+     * körben a megadott érték legyen.
+     *
+     * @param slot A gomba helyének sorszáma.
+     * @param age  A gomba új életkora.
+     */
+    public void setAge(int slot, int age) {
+        mushroomBirth[slot] = round - age;
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @return true, ha a gomba már kifejlődött.
+     */
+    public boolean isEvolved(int slot) {
+        return evolved.get(slot);
+    }
+
+
+    /**
+     * @param slot A gomba helyének sorszáma.
+     * @param e    A fejlettség jelző új értéke.
+     */
+    public void setEvolved(int slot, boolean e) {
+        evolved.set(slot, e);
+    }
+
+
+    /**
+     * Elvégzi a rovarok körkezdő állapotátmenetét. Az állapotoszlopot egy
+     * menetben bejárva állapotonkénti bitsetekbe gyűjti a rovarokat, és közben
+     * mindet NORMAL állapotba teszi; ezután a lépett és vágott jelzőket
+     * bitset-műveletekkel, egyszerre számolja ki:
+     * <ul>
+     * <li>SLOWED: lépett, nem vágott;</li>
+     * <li>PARALYZED: lépett és vágott;</li>
+     * <li>NOCUT: nem lépett, vágott;</li>
+     * <li>DIVIDED és NORMAL: nem lépett, nem vágott;</li>
+     * <li>SPEEDBOOST: a jelzők nem változnak.</li>
+     * </ul>
+     */
+    public void startInsectRound() {
+        slowed.clear();
+        paralyzed.clear();
+        nocut.clear();
+        speedboost.clear();
+
+        byte[] states = insectState;
+        for (int slot = insectLive.nextSetBit(0); slot >= 0; slot = insectLive.nextSetBit(slot + 1)) {
+            byte state = states[slot];
+            if (state == SLOWED) {
+                slowed.set(slot);
+            } else if (state == PARALYZED) {
+                paralyzed.set(slot);
+            } else if (state == NOCUT) {
+                nocut.set(slot);
+            } else if (state == SPEEDBOOST) {
+                speedboost.set(slot);
+            }
+            states[slot] = NORMAL;
+        }
+
+        moved.and(speedboost);
+        moved.or(slowed);
+        moved.or(paralyzed);
+
+        cut.and(speedboost);
+        cut.or(paralyzed);
+        cut.or(nocut);
+    }
+
+}
@@ -3,9 +3,11 @@ package controller;
 import java.util.ArrayList;
 import java.util.List;
 
+import model.FungalThread;
 import model.IFungalThreadController;
 import model.IMushroomController;
 import model.Mushroom;
+import model.SporeType;
 
 
 /**
@@ -19,16 +21,33 @@ public class FungusPlayer extends Player {
     private IFungalThreadController fungalThread;
     private boolean branchThread;
     private List<MushroomAssociation> mushrooms;
+    private final EntityStore store;
+    private final int owner;
 
 
     /**
      * A FungusPlayer osztály konstruktora.
-     * Inicializálja az alapértelmezett értékeket a példányosított objektumhoz.
+     * Inicializálja az alapértelmezett értékeket a példányosított objektumhoz,
+     * a gombák adatait egy saját tárban tartja.
      */
     public FungusPlayer() {
+        this(new EntityStore(), 0);
+    }
+
+
+    /**
+     * Létrehoz egy gombászt, amelynek gombái a megadott, a játékosok között
+     * közös tárba kerülnek.
+     *
+     * @param store A gombák adatait tároló tár.
+     * @param owner A játékos sorszáma a tárban.
+     */
+    public FungusPlayer(EntityStore store, int owner) {
         fungalThread = null;
         branchThread = false;
         mushrooms = new ArrayList<>();
+        this.store = store;
+        this.owner = owner;
     }
 
 
@@ -50,7 +69,18 @@ public class FungusPlayer extends Player {
      * amely a gombafonal működését és eseményeit kezeli.
      */
     public void setThread(IFungalThreadController f) {
+        OwnershipIndex ownership = store.getOwnership();
+        if (fungalThread instanceof FungalThread old) {
+            ownership.remove(old);
+            for (SporeType type : SporeType.values())
+                ownership.remove(old.getSpore(type));
+        }
         fungalThread = f;
+        if (f instanceof FungalThread thread) {
+            ownership.put(thread, this, null);
+            for (SporeType type : SporeType.values())
+                ownership.put(thread.getSpore(type), this, null);
+        }
     }
 
 
@@ -93,9 +123,9 @@ public class FungusPlayer extends Player {
      * @param m A gombát vezérlő objektum, amelyet a gombák listájához kell hozzáadni.
      */
     public void addMushroom(IMushroomController m) {
-        MushroomAssociation mAssoc = new MushroomAssociation();
-        mAssoc.setMushroom(m);
+        MushroomAssociation mAssoc = new MushroomAssociation(store, store.addMushroom(m, owner));
         mushrooms.add(mAssoc);
+        store.getOwnership().put(m, this, mAssoc);
     }
 
 
@@ -106,6 +136,7 @@ public class FungusPlayer extends Player {
      */
     public void addMushroomAssociation(MushroomAssociation ma) {
         mushrooms.add(ma);
+        store.getOwnership().put(ma.getMushroom(), this, ma);
     }
 
 
@@ -126,7 +157,7 @@ public class FungusPlayer extends Player {
      * @param i A lista indexe, ahol az eltávolítandó gomba-asszociáció található.
      */
     public void removeMushroomAt(int i) {
-        mushrooms.remove(i);
+        store.removeMushroom(mushrooms.remove(i).getSlot());
     }
 
 
@@ -136,7 +167,9 @@ public class FungusPlayer extends Player {
      * @param m A MushroomAssociation típusú objektum, amelyet el kell távolítani a listából.
      */
     public void removeMushroom(MushroomAssociation m) {
-        mushrooms.remove(m);
+        if (m != null && mushrooms.remove(m)) {
+            store.removeMushroom(m.getSlot());
+        }
     }
 
 
@@ -146,13 +179,9 @@ public class FungusPlayer extends Player {
      * @param m A gomba, amelyet el kívánunk távolítani.
      */
     public void rm(Mushroom m) {
-        MushroomAssociation removable = null;
-        for (MushroomAssociation mush : mushrooms) {
-            if (mush.getMushroom() == m) {
-                removable = mush;
-            }
-        }
-        removeMushroom(removable);
+        OwnershipIndex ownership = store.getOwnership();
+        if (ownership.getOwner(m) == this)
+            removeMushroom(ownership.getMushroomAssociation(m));
     }
 
 
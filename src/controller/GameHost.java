@@ -0,0 +1,103 @@
+package controller;
+
+import java.util.List;
+
+import model.Insect;
+import model.Mushroom;
+import model.Tecton;
+
+
+/**
+ * A GameHost a Controller felé a játékot megjelenítő környezetet képviseli:
+ * ezen keresztül jelzi az üzeneteket, a játéktér változásait és a játék
+ * állapotát. A grafikus felületen a GamePanel valósítja meg, megjelenítés
+ * nélküli futtatáshoz (tesztek, szimulációk, szerver) a HeadlessHost.
+ */
+public interface GameHost {
+
+    /**
+     * Hibaüzenetet jelez.
+     *
+     * @param str Az üzenet szövege.
+     */
+    void showError(String str);
+
+    /**
+     * Információs üzenetet jelez.
+     *
+     * @param str Az üzenet szövege.
+     */
+    void showInformation(String str);
+
+    /**
+     * Jelzi, hogy a játéktér megjelenítését frissíteni kell.
+     */
+    void repaint();
+
+    /**
+     * Beállítja a játék állapotát.
+     *
+     * @param state Az új állapot.
+     */
+    void setState(GameState state);
+
+    /**
+     * @return A játék aktuális állapota.
+     */
+    GameState getState();
+
+    /**
+     * Jelzi a játék végét.
+     */
+    void endGame();
+
+    /**
+     * Jelzi egy betöltött tekton megjelenését.
+     *
+     * @param points A tekton csúcsainak koordinátái felváltva (x, y).
+     * @param t      A tekton.
+     * @param type   A tekton típusának neve.
+     */
+    void addTecton(List<Integer> points, Tecton t, String type);
+
+    /**
+     * Jelzi egy tekton kettétörését.
+     *
+     * @param source   A kettétört tekton.
+     * @param created1 Az első új tekton.
+     * @param created2 A második új tekton.
+     */
+    void breakTecton(Tecton source, Tecton created1, Tecton created2);
+
+    /**
+     * @param m Az új gomba.
+     */
+    void addMushroom(Mushroom m);
+
+    /**
+     * @param m Az eltávolított gomba.
+     */
+    void removeMushroom(Mushroom m);
+
+    /**
+     * @param i Az új rovar.
+     */
+    void addInsect(Insect i);
+
+    /**
+     * @param i Az eltávolított rovar.
+     */
+    void removeInsect(Insect i);
+
+    /**
+     * Lefuttat egy előkészítő feladatot, amikor a környezet éppen nem dolgoz
+     * fel felhasználói eseményt. A feladatnak a modellt a játék szálán kell
+     * olvasnia, ezért a grafikus felület az eseménykezelő szál sorának végére
+     * teszi; megjelenítés nélkül azonnal lefut.
+     *
+     * @param task Az előkészítő feladat.
+     */
+    default void runWhenIdle(Runnable task) {
+        task.run();
+    }
+}
@@ -0,0 +1,89 @@
+package controller;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * A GameRandom egy játék saját véletlenszám-forrása. A magja ismert és
+ * lekérdezhető, így a játék ugyanazzal a maggal és ugyanazokkal a lépésekkel
+ * pontosan megismételhető. Minden Controller saját példányt használ, ezért
+ * több játék párhuzamosan, közös állapot és zárolás nélkül futhat.
+ * <p>
+ * A korlátos számok egyenletes eloszlásúak (nem maradékos osztással
+ * készülnek). Részszimulációkhoz a split ad új forrást, amelynek a magja a
+ * szülő forrásból származik, így a részszimuláció is megismételhető.
+ */
+public final class GameRandom {
+
+    private final long seed;
+    private final SplittableRandom source;
+
+
+    /**
+     * Létrehoz egy véletlenszerű magú forrást.
+     */
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+
+    /**
+     * Létrehoz egy forrást a megadott maggal.
+     *
+     * @param seed A mag.
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        source = new SplittableRandom(seed);
+    }
+
+
+    /**
+     * @return A forrás magja, amellyel a forrás újra létrehozható.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+
+    /**
+     * Visszaad egy egyenletes eloszlású egész számot 0 és bound-1 között.
+     *
+     * @param bound A felső korlát (exkluzív), pozitív.
+     * @return A véletlen szám.
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("A korlátnak pozitívnak kell lennie: " + bound);
+        }
+        return source.nextInt(bound);
+    }
+
+
+    /**
+     * @return Egy véletlen logikai érték.
+     */
+    public boolean nextBoolean() {
+        return source.nextBoolean();
+    }
+
+
+    /**
+     * @return Egy véletlen 64 bites egész szám.
+     */
+    public long nextLong() {
+        return source.nextLong();
+    }
+
+
+    /**
+     * Leválaszt egy új, független forrást. Az új forrás magja ebből a
+     * forrásból kerül ki, így ugyanazon a ponton leválasztva mindig ugyanaz.
+     *
+     * @return Az új forrás.
+     */
+    public GameRandom split() {
+        return new GameRandom(source.nextLong());
+    }
+
+}
@@ -1,4 +1,4 @@
-package view;
+package controller;
 
 /**
  * A GameState enum a játékban előforduló különböző állapotokat
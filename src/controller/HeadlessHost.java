@@ -0,0 +1,123 @@
+package controller;
+
+import java.util.List;
+
+import model.Insect;
+import model.Mushroom;
+import model.Tecton;
+
+
+/**
+ * A HeadlessHost megjelenítés nélküli GameHost: a játék állapotát megjegyzi,
+ * az üzeneteket csak megszámolja, a többi jelzést figyelmen kívül hagyja. A
+ * Controller ezzel indul, így a szabályok grafikus felület (és AWT) nélkül,
+ * teljes sebességgel futtathatók.
+ */
+public class HeadlessHost implements GameHost {
+
+    private GameState state;
+    private boolean ended;
+    private int errors;
+    private String lastError;
+
+
+    /**
+     * Létrehoz egy megjelenítés nélküli környezetet a játék kezdőállapotával.
+     */
+    public HeadlessHost() {
+        state = GameState.PUTFIRSTMUSHROOM;
+        ended = false;
+        errors = 0;
+        lastError = null;
+    }
+
+
+    @Override
+    public void showError(String str) {
+        errors++;
+        lastError = str;
+    }
+
+
+    @Override
+    public void showInformation(String str) {
+    }
+
+
+    @Override
+    public void repaint() {
+    }
+
+
+    @Override
+    public void setState(GameState state) {
+        this.state = state;
+    }
+
+
+    @Override
+    public GameState getState() {
+        return state;
+    }
+
+
+    @Override
+    public void endGame() {
+        ended = true;
+    }
+
+
+    @Override
+    public void addTecton(List<Integer> points, Tecton t, String type) {
+    }
+
+
+    @Override
+    public void breakTecton(Tecton source, Tecton created1, Tecton created2) {
+    }
+
+
+    @Override
+    public void addMushroom(Mushroom m) {
+    }
+
+
+    @Override
+    public void removeMushroom(Mushroom m) {
+    }
+
+
+    @Override
+    public void addInsect(Insect i) {
+    }
+
+
+    @Override
+    public void removeInsect(Insect i) {
+    }
+
+
+    /**
+     * @return true, ha a játék véget ért.
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+
+    /**
+     * @return Az eddig jelzett hibaüzenetek száma.
+     */
+    public int getErrorCount() {
+        return errors;
+    }
+
+
+    /**
+     * @return A legutóbbi hibaüzenet, vagy null.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+}
@@ -6,23 +6,33 @@ import model.IInsectController;
 /**
  * Az InsectAssociation osztály egy rovarvezérlőhöz (IInsectController) kapcsolódó asszociációt reprezentál.
  * A beállítható attribútumokkal nyomon követhető, hogy történt-e bármilyen mozgás vagy vágás a rovaron.
+ * Az adatokat nem maga tárolja, hanem az EntityStore egy helyét (slot) kezeli.
  */
 public class InsectAssociation {
 
-    private IInsectController insect;
-    private boolean moved;
-    private boolean cut;
+    private final EntityStore store;
+    private final int slot;
 
 
     /**
-     * Létrehoz egy új, alapállapotú InsectAssociation objektumot.
-     * Az inicializálás során az 'insect' mező null értéket kap,
-     * a 'moved' és 'cut' mezők hamis értékre vannak állítva.
+     * Létrehoz egy InsectAssociation objektumot a tár egy már lefoglalt helyéhez.
+     *
+     * @param store A tár, amelyben a rovar adatai vannak.
+     * @param slot  A rovar helyének sorszáma a tárban.
+     */
+    InsectAssociation(EntityStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+
+    /**
+     * Visszaadja a rovar helyének sorszámát a tárban.
+     *
+     * @return A hely sorszáma.
      */
-    public InsectAssociation() {
-        insect = null;
-        moved = false;
-        cut = false;
+    int getSlot() {
+        return slot;
     }
 
 
@@ -32,7 +42,7 @@ public class InsectAssociation {
      * @param i Az IInsectController interfész egy implementációja, amely a rovar funkcionalitását kezeli.
      */
     public void setInsect(IInsectController i) {
-        insect = i;
+        store.setInsect(slot, i);
     }
 
 
@@ -43,7 +53,7 @@ public class InsectAssociation {
      *         vagy null, ha nincs beállítva.
      */
     public IInsectController getInsect() {
-        return insect;
+        return store.getInsect(slot);
     }
 
 
@@ -54,7 +64,7 @@ public class InsectAssociation {
      *          Ha true, akkor mozgás történt; ha false, akkor nem történt mozgás.
      */
     public void setMoved(boolean m) {
-        moved = m;
+        store.setMoved(slot, m);
     }
 
 
@@ -64,7 +74,7 @@ public class InsectAssociation {
      * @return igaz, ha az objektum mozgott, különben hamis
      */
     public boolean getMoved() {
-        return moved;
+        return store.isMoved(slot);
     }
 
 
@@ -74,7 +84,7 @@ public class InsectAssociation {
      * @param c Az új érték, amely meghatározza a cut állapotot.
      */
     public void setCut(boolean c) {
-        cut = c;
+        store.setCut(slot, c);
     }
 
 
@@ -85,7 +95,7 @@ public class InsectAssociation {
      * vagy hamis (false), ha nem.
      */
     public boolean getCut() {
-        return cut;
+        return store.isCut(slot);
     }
 
 }
@@ -14,14 +14,31 @@ import model.Insect;
 public class InsectPlayer extends Player {
 
     private List<InsectAssociation> insects;
+    private final EntityStore store;
+    private final int owner;
 
 
     /**
      * Az InsectPlayer osztály alapértelmezett konstruktora.
-     * Létrehozza és inicializálja a rovarokat tároló listát.
+     * Létrehozza és inicializálja a rovarokat tároló listát, a rovarok adatait
+     * egy saját tárban tartja.
      */
     public InsectPlayer() {
+        this(new EntityStore(), 0);
+    }
+
+
+    /**
+     * Létrehoz egy rovarászt, amelynek rovarai a megadott, a játékosok között
+     * közös tárba kerülnek.
+     *
+     * @param store A rovarok adatait tároló tár.
+     * @param owner A játékos sorszáma a tárban.
+     */
+    public InsectPlayer(EntityStore store, int owner) {
         insects = new ArrayList<>();
+        this.store = store;
+        this.owner = owner;
     }
 
 
@@ -43,9 +60,9 @@ public class InsectPlayer extends Player {
      * @param i Az IInsectController interfész egy implementációja, amely a hozzáadni kívánt rovar vezérlését végzi.
      */
     public void addInsect(IInsectController i) {
-        InsectAssociation iAssoc = new InsectAssociation();
-        iAssoc.setInsect(i);
+        InsectAssociation iAssoc = new InsectAssociation(store, store.addInsect(i, owner));
         insects.add(iAssoc);
+        store.getOwnership().put(i, this, iAssoc);
     }
 
 
@@ -69,7 +86,7 @@ public class InsectPlayer extends Player {
      * @param i az eltávolítandó rovar-asszociáció indexe a listában
      */
     public void removeInsectAt(int i) {
-        insects.remove(i);
+        store.removeInsect(insects.remove(i).getSlot());
     }
 
 
@@ -79,7 +96,9 @@ public class InsectPlayer extends Player {
      * @param i Az eltávolítandó rovar asszociáció, amely az InsectAssociation típusú objektumot jelöli.
      */
     public void removeInsect(InsectAssociation i) {
-        insects.remove(i);
+        if (i != null && insects.remove(i)) {
+            store.removeInsect(i.getSlot());
+        }
     }
 
 
@@ -91,13 +110,7 @@ public class InsectPlayer extends Player {
      * @param i A rovar (Insect) objektum, amelyet el kell távolítani a listából.
      */
     public void rm(Insect i) {
-        InsectAssociation removable = null;
-        for (InsectAssociation ins : insects) {
-            if (ins.getInsect() == i) {
-                removable = ins;
-            }
-        }
-        removeInsect(removable);
+        removeInsect(getInsectAssociation(i));
     }
 
 
@@ -118,10 +131,9 @@ public class InsectPlayer extends Player {
      * @return Az InsectAssociation objektum, amely megfelel a megadott rovarvezérlőnek, vagy null, ha nem található ilyen társítás.
      */
     public InsectAssociation getInsectAssociation(IInsectController insect) {
-        for (InsectAssociation insectAssociation : insects) {
-            if (insectAssociation.getInsect().equals(insect)) return insectAssociation;
-        }
-        return null;
+        OwnershipIndex ownership = store.getOwnership();
+        if (ownership.getOwner(insect) != this) return null;
+        return ownership.getInsectAssociation(insect);
     }
 
 }
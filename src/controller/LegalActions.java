@@ -0,0 +1,504 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.FungalThread;
+import model.Insect;
+import model.ModelEventType;
+import model.ModelListener;
+import model.Mushroom;
+import model.MushroomState;
+import model.Tecton;
+import model.TectonGraph;
+
+
+/**
+ * A LegalActions megadja, hogy egy játékos mely lépései sikerülnének a játék
+ * aktuális állapotában, a lépések végrehajtása nélkül. A bot és a grafikus
+ * felület (a célpontok kiemelése) is ezen keresztül kérdez.
+ * <p>
+ * A rovarok lépései és vágásai, valamint a spóralövések csak a szereplő
+ * tektonjának környezetétől függenek. Ezeket szereplőnként egy-egy bitset
+ * tárolja, azzal együtt, hogy mely tektonok állapotából készült (a rovar
+ * tektonja és szomszédai, illetve a gombatest hatótávolsága). Egy fordított
+ * index tektononként megadja az ezektől függő bejegyzéseket, így egy változás
+ * csak az érintett szereplők célpontjait érvényteleníti. A gombászok
+ * elágaztatási és gombanövesztési célpontjai az egész játéktérre vonatkoznak;
+ * ezeket gombászonként egy-egy bitset tárolja. A gráf eseménybuszán érkező
+ * változás csak a forrás tekton és szomszédai bitjeit érvényteleníti, és a
+ * következő lekérdezés csak ezeket számolja újra.
+ * <p>
+ * A körhöz kötött jelzők (lépett, vágott, elágaztatott) a lekérdezéskor
+ * kerülnek ellenőrzésre, így a kör váltásakor nincs mit érvényteleníteni. Egy
+ * eseménykötegen belül a gyorsítótár a köteg végéig nem frissül.
+ */
+public class LegalActions implements ModelListener {
+
+    /**
+     * Egy gombász játéktér szintű célpontjai.
+     */
+    private static class FungusCache {
+        private final BitSet branch = new BitSet();
+        private final BitSet grow = new BitSet();
+        private final BitSet valid = new BitSet();
+    }
+
+
+    /**
+     * Egy szereplő (rovar vagy gombatest) célpontjai, a tekton, amelyen a
+     * szereplő a számoláskor állt, és a tektonok, amelyek állapotából a
+     * célpontok készültek.
+     */
+    private static class ActorCache {
+        private final BitSet targets = new BitSet();
+        private final BitSet deps = new BitSet();
+        private final boolean structural;
+        private Tecton anchor;
+        private boolean evolved;
+        private boolean valid;
+
+        /**
+         * @param structural true, ha a célpontok csak a gráf szerkezetétől
+         *                   függenek (spóralövés).
+         */
+        private ActorCache(boolean structural) {
+            this.structural = structural;
+        }
+    }
+
+
+    private final Controller controller;
+    private final TectonGraph graph;
+    private final OwnershipIndex ownership;
+    private final Map<FungusPlayer, FungusCache> caches;
+    private final Map<Insect, ActorCache> moveCaches;
+    private final Map<Insect, ActorCache> cutCaches;
+    private final Map<Mushroom, ActorCache> shootCaches;
+    private final List<List<ActorCache>> dependents;
+    private long version;
+
+
+    /**
+     * Létrehozza a generátort, és feliratkozik a gráf eseményeire.
+     *
+     * @param controller A játékot vezérlő Controller.
+     * @param graph      A játéktér gráfja.
+     * @param ownership  A tulajdonosi index.
+     */
+    LegalActions(Controller controller, TectonGraph graph, OwnershipIndex ownership) {
+        this.controller = controller;
+        this.graph = graph;
+        this.ownership = ownership;
+        caches = new IdentityHashMap<>();
+        moveCaches = new IdentityHashMap<>();
+        cutCaches = new IdentityHashMap<>();
+        shootCaches = new IdentityHashMap<>();
+        dependents = new ArrayList<>();
+        version = 0;
+        graph.getEvents().addListener(this);
+    }
+
+
+    @Override
+    public void modelChanged(ModelEventType type, Tecton source, Object target) {
+        version++;
+        if (type == ModelEventType.INSECT_REMOVED) {
+            forget(moveCaches.remove(target));
+            forget(cutCaches.remove(target));
+        } else if (type == ModelEventType.MUSHROOM_DIED) {
+            forget(shootCaches.remove(target));
+        }
+        invalidateActors(type, source);
+        if (target instanceof Tecton) {
+            invalidateActors(type, (Tecton) target);
+        }
+
+        if (caches.isEmpty()) {
+            return;
+        }
+        invalidate(source);
+        if (target instanceof Tecton) {
+            invalidate((Tecton) target);
+        }
+    }
+
+
+    /**
+     * Visszaadja, hányszor változott a játéktér a generátor létrehozása óta.
+     * A grafikus felület ebből tudja, hogy a kiemelt célpontokat újra kell-e
+     * számolnia.
+     *
+     * @return A változások száma.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Érvényteleníti azoknak a szereplőknek a célpontjait, amelyek a tekton
+     * állapotától függenek. A spórák a célpontokat nem befolyásolják, a
+     * spóralövés célpontjait pedig csak a gráf szerkezetének változása.
+     */
+    private void invalidateActors(ModelEventType type, Tecton t) {
+        if (t == null || t.getGraph() != graph || type == ModelEventType.SPORE_ADDED
+                || type == ModelEventType.SPORE_REMOVED) {
+            return;
+        }
+        int id = t.getId();
+        if (id >= dependents.size() || dependents.get(id) == null) {
+            return;
+        }
+        boolean split = type == ModelEventType.TECTON_SPLIT;
+        for (ActorCache cache : dependents.get(id)) {
+            if (split || !cache.structural) {
+                cache.valid = false;
+            }
+        }
+    }
+
+
+    /**
+     * Érvényteleníti a tekton és szomszédai bitjeit: egy tekton elágaztatási
+     * célpont volta a szomszédai fonalaitól is függ.
+     */
+    private void invalidate(Tecton t) {
+        if (t == null || t.getGraph() != graph) {
+            return;
+        }
+        int id = t.getId();
+        int degree = graph.degree(id);
+        for (FungusCache cache : caches.values()) {
+            cache.valid.clear(id);
+            for (int i = 0; i < degree; i++) {
+                int n = graph.neighborAt(id, i);
+                if (n != TectonGraph.NO_NEIGHBOR) {
+                    cache.valid.clear(n);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Visszaadja a tektonokat, amelyekre a rovar léphet: szomszédos, szabad,
+     * és van rajta a rovar tektonjával közös fonál.
+     *
+     * @param insect A rovar.
+     * @return A lehetséges céltektonok, azonosító szerinti sorrendben.
+     */
+    public List<Tecton> moveTargets(Insect insect) {
+        InsectAssociation a = ownership.getInsectAssociation(insect);
+        Tecton from = insect == null ? null : insect.getPosition();
+        if (!started() || a == null || a.getMoved() || !onGraph(from)) {
+            return new ArrayList<>();
+        }
+        ActorCache cache = actorCache(moveCaches, insect, from, false);
+        if (!cache.valid) {
+            cache.targets.clear();
+            from.forEachNeighbor(t -> {
+                if (!t.isOccupied() && t.isNeighbor(from) && t.sharesThread(from)) {
+                    cache.targets.set(t.getId());
+                }
+            });
+            depend(cache, from, neighborhood(from));
+        }
+        return toList(cache.targets);
+    }
+
+
+    /**
+     * Visszaadja a tektonokat, amelyeken a rovar fonalat vághat: szomszédos,
+     * nincs rajta gombatest, és van rajta a rovar tektonjával közös fonál.
+     *
+     * @param insect A rovar.
+     * @return A lehetséges vágási célpontok, azonosító szerinti sorrendben.
+     */
+    public List<Tecton> cutTargets(Insect insect) {
+        InsectAssociation a = ownership.getInsectAssociation(insect);
+        Tecton from = insect == null ? null : insect.getPosition();
+        if (!started() || a == null || a.getCut() || !onGraph(from)) {
+            return new ArrayList<>();
+        }
+        ActorCache cache = actorCache(cutCaches, insect, from, false);
+        if (!cache.valid) {
+            cache.targets.clear();
+            from.forEachNeighbor(t -> {
+                if (t.getMushroom() == null && t.isNeighbor(from) && t.sharesThread(from)) {
+                    cache.targets.set(t.getId());
+                }
+            });
+            depend(cache, from, neighborhood(from));
+        }
+        return toList(cache.targets);
+    }
+
+
+    /**
+     * Visszaadja a tektonokat, amelyekre a gombatest spórát lőhet: fejletlen
+     * gombatest a szomszédos, fejlett a legfeljebb két lépésre lévő tektonokra.
+     *
+     * @param m A gombatest.
+     * @return A lehetséges célpontok, azonosító szerinti sorrendben.
+     */
+    public List<Tecton> shootTargets(Mushroom m) {
+        Tecton from = m == null ? null : m.getPosition();
+        if (!started() || !onGraph(from) || m.getSpores().isEmpty() || ownership.getOwner(m) == null) {
+            return new ArrayList<>();
+        }
+        boolean evolved = m.getState() == MushroomState.EVOLVED;
+        ActorCache cache = actorCache(shootCaches, m, from, true);
+        if (!cache.valid || cache.evolved != evolved) {
+            cache.targets.clear();
+            BitSet deps;
+            if (evolved) {
+                deps = graph.getHopIndex().within(from.getId(), 2);
+                for (int id = deps.nextSetBit(0); id >= 0; id = deps.nextSetBit(id + 1)) {
+                    Tecton t = graph.getTecton(id);
+                    if (!graph.isRetired(id) && t.isWithinHops(from, 2)) {
+                        cache.targets.set(id);
+                    }
+                }
+                deps.set(from.getId());
+            } else {
+                from.forEachNeighbor(t -> {
+                    if (t.isNeighbor(from)) {
+                        cache.targets.set(t.getId());
+                    }
+                });
+                deps = neighborhood(from);
+            }
+            cache.evolved = evolved;
+            depend(cache, from, deps);
+        }
+        return toList(cache.targets);
+    }
+
+
+    /**
+     * Visszaadja a tektonokat, amelyekre a gombász fonala elágaztatható.
+     *
+     * @param player A gombász.
+     * @return A lehetséges célpontok, azonosító szerinti sorrendben.
+     */
+    public List<Tecton> branchTargets(FungusPlayer player) {
+        if (!started() || player == null || player.getBranchThread()) {
+            return new ArrayList<>();
+        }
+        FungusCache cache = refresh(player);
+        return cache == null ? new ArrayList<>() : toList(cache.branch);
+    }
+
+
+    /**
+     * Visszaadja a tektonokat, amelyeken a gombász gombatestet növeszthet:
+     * a tektonon lehet gombatest, még nincs rajta, rajta van a gombász fonala,
+     * és legalább három spórája.
+     *
+     * @param player A gombász.
+     * @return A lehetséges célpontok, azonosító szerinti sorrendben.
+     */
+    public List<Tecton> growTargets(FungusPlayer player) {
+        if (!started() || player == null) {
+            return new ArrayList<>();
+        }
+        FungusCache cache = refresh(player);
+        return cache == null ? new ArrayList<>() : toList(cache.grow);
+    }
+
+
+    /**
+     * Megadja, hogy a gombász megeheti-e a rovart: a rovar ebben a körben már
+     * lépett és vágott, és a tektonján rajta van a gombász fonala.
+     *
+     * @param player A gombász.
+     * @param insect A rovar.
+     * @return true, ha a rovar megehető.
+     */
+    public boolean canEat(FungusPlayer player, Insect insect) {
+        InsectAssociation a = ownership.getInsectAssociation(insect);
+        if (player == null || a == null || !a.getCut() || !a.getMoved()) {
+            return false;
+        }
+        FungalThread f = (FungalThread) player.getThread();
+        Tecton at = insect.getPosition();
+        return f != null && at != null && at.hasThread(f);
+    }
+
+
+    /**
+     * Visszaadja a játékos összes lehetséges lépését, feltéve, hogy ő van
+     * soron. A lista végén mindig ott van a lépés lezárása.
+     *
+     * @param player A játékos.
+     * @return A lehetséges lépések.
+     */
+    public List<Command> forPlayer(Player player) {
+        List<Command> commands = new ArrayList<>();
+        if (player instanceof InsectPlayer ip) {
+            for (InsectAssociation a : ip.getInsects()) {
+                Insect insect = (Insect) a.getInsect();
+                for (Tecton t : moveTargets(insect))
+                    commands.add(Command.move(insect, t));
+                for (Tecton t : cutTargets(insect))
+                    commands.add(Command.cut(insect, t));
+            }
+        } else if (player instanceof FungusPlayer fp) {
+            for (Tecton t : branchTargets(fp))
+                commands.add(Command.branchThread(t));
+            for (Tecton t : growTargets(fp))
+                commands.add(Command.growMushroom(t));
+            for (MushroomAssociation a : fp.getMushrooms()) {
+                Mushroom m = (Mushroom) a.getMushroom();
+                for (Tecton t : shootTargets(m))
+                    commands.add(Command.shootSpore(m, t));
+            }
+            for (InsectPlayer ip : controller.getInsectPlayers()) {
+                for (InsectAssociation a : ip.getInsects()) {
+                    Insect insect = (Insect) a.getInsect();
+                    if (canEat(fp, insect))
+                        commands.add(Command.eatInsect(insect));
+                }
+            }
+        }
+        commands.add(Command.closeStep());
+        return commands;
+    }
+
+
+    /**
+     * Előkészíti a játékos lehetséges lépéseihez szükséges adatokat: a gombász
+     * elágaztatási és gombanövesztési bitsetjeit, valamint fejlett gombatestjei
+     * hatótávolságát. A Controller a lépés átadásakor, üresjáratban hívja, így
+     * a játékos első lekérdezése már a kész adatokat találja.
+     *
+     * @param player A játékos, vagy null.
+     */
+    public void prepare(Player player) {
+        if (!(player instanceof FungusPlayer fp)) {
+            return;
+        }
+        refresh(fp);
+        for (MushroomAssociation a : fp.getMushrooms()) {
+            Mushroom m = (Mushroom) a.getMushroom();
+            Tecton at = m.getPosition();
+            if (m.getState() == MushroomState.EVOLVED && at != null && at.getGraph() == graph) {
+                graph.getHopIndex().prepare(at.getId());
+            }
+        }
+    }
+
+
+    private boolean started() {
+        return controller.getRound() > 0;
+    }
+
+
+    /**
+     * Újraszámolja a gombász érvénytelen bitjeit, és visszaadja a gombász
+     * bitseteit.
+     */
+    private FungusCache refresh(FungusPlayer player) {
+        FungalThread f = (FungalThread) player.getThread();
+        if (f == null) {
+            return null;
+        }
+        FungusCache cache = caches.computeIfAbsent(player, p -> new FungusCache());
+        int n = graph.size();
+        for (int id = cache.valid.nextClearBit(0); id < n; id = cache.valid.nextClearBit(id + 1)) {
+            Tecton t = graph.getTecton(id);
+            boolean live = !graph.isRetired(id);
+            cache.branch.set(id, live && t.canPutThread(f));
+            cache.grow.set(id, live && t.canPutMushroom() && t.getMushroom() == null
+                    && t.hasThread(f) && t.sporeCount(f) >= 3);
+            cache.valid.set(id);
+        }
+        return cache;
+    }
+
+
+    private boolean onGraph(Tecton t) {
+        return t != null && t.getGraph() == graph;
+    }
+
+
+    /**
+     * Visszaadja a szereplő bejegyzését; ha a szereplő azóta másik tektonra
+     * került, a bejegyzés érvénytelen.
+     */
+    private <K> ActorCache actorCache(Map<K, ActorCache> map, K actor, Tecton from, boolean structural) {
+        ActorCache cache = map.computeIfAbsent(actor, k -> new ActorCache(structural));
+        if (cache.anchor != from) {
+            cache.valid = false;
+        }
+        return cache;
+    }
+
+
+    /**
+     * Visszaadja a tekton és szomszédai azonosítóinak halmazát.
+     */
+    private BitSet neighborhood(Tecton t) {
+        BitSet ids = new BitSet();
+        int id = t.getId();
+        ids.set(id);
+        int degree = graph.degree(id);
+        for (int i = 0; i < degree; i++) {
+            int n = graph.neighborAt(id, i);
+            if (n != TectonGraph.NO_NEIGHBOR) {
+                ids.set(n);
+            }
+        }
+        return ids;
+    }
+
+
+    /**
+     * Érvényesnek jelöli a frissen számolt bejegyzést, és a fordított indexben
+     * a régi függőségeit az újakra cseréli.
+     */
+    private void depend(ActorCache cache, Tecton from, BitSet deps) {
+        forget(cache);
+        cache.deps.or(deps);
+        for (int id = deps.nextSetBit(0); id >= 0; id = deps.nextSetBit(id + 1)) {
+            while (dependents.size() <= id) {
+                dependents.add(null);
+            }
+            if (dependents.get(id) == null) {
+                dependents.set(id, new ArrayList<>());
+            }
+            dependents.get(id).add(cache);
+        }
+        cache.anchor = from;
+        cache.valid = true;
+    }
+
+
+    /**
+     * Kiveszi a bejegyzést a fordított indexből.
+     */
+    private void forget(ActorCache cache) {
+        if (cache == null) {
+            return;
+        }
+        for (int id = cache.deps.nextSetBit(0); id >= 0; id = cache.deps.nextSetBit(id + 1)) {
+            dependents.get(id).remove(cache);
+        }
+        cache.deps.clear();
+        cache.valid = false;
+    }
+
+
+    private List<Tecton> toList(BitSet ids) {
+        List<Tecton> list = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            list.add(graph.getTecton(id));
+        }
+        return list;
+    }
+
+}
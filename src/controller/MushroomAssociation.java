@@ -11,18 +11,30 @@ import model.IMushroomController;
  */
 public class MushroomAssociation {
 
-    private IMushroomController mushroom;
-    private int age;
+    private final EntityStore store;
+    private final int slot;
 
 
     /**
-     * Alapértelmezett konstruktor a MushroomAssociation osztály számára.
-     * Inicializálja a MushroomAssociation objektumot az alapértékekkel:
-     * a gombát (mushroom) null értékre állítja és az életkort (age) 0-ra.
+     * Létrehoz egy MushroomAssociation objektumot a tár egy már lefoglalt
+     * helyéhez. Az adatokat (gomba, életkor, fejlettség) a tár tárolja.
+     *
+     * @param store A tár, amelyben a gomba adatai vannak.
+     * @param slot  A gomba helyének sorszáma a tárban.
+     */
+    MushroomAssociation(EntityStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+
+    /**
+     * Visszaadja a gomba helyének sorszámát a tárban.
+     *
+     * @return A hely sorszáma.
      */
-    public MushroomAssociation() {
-        mushroom = null;
-        age = 0;
+    int getSlot() {
+        return slot;
     }
 
 
@@ -34,7 +46,7 @@ public class MushroomAssociation {
      *         amely a gombát vezérli, vagy null, ha nincs inicializálva.
      */
     public IMushroomController getMushroom() {
-        return mushroom;
+        return store.getMushroom(slot);
     }
 
 
@@ -44,17 +56,18 @@ public class MushroomAssociation {
      * @param m a beállítandó gomba vezérlő objektum
      */
     public void setMushroom(IMushroomController m) {
-        mushroom = m;
+        store.setMushroom(slot, m);
     }
 
 
     /**
-     * Visszaadja a gomba életkorát.
+     * Visszaadja a gomba életkorát: a születése óta eltelt körök számát,
+     * legfeljebb a fejlődéshez szükséges életkort.
      *
      * @return a gomba életkora
      */
     public int getAge() {
-        return age;
+        return Math.min(store.getAge(slot), Controller.EVOLVE_AGE);
     }
 
 
@@ -64,7 +77,28 @@ public class MushroomAssociation {
      * @param a Az új életkor értéke.
      */
     public void setAge(int a) {
-        age = a;
+        store.setAge(slot, a);
+    }
+
+
+
+    /**
+     * Megadja, hogy a gomba már kifejlődött-e.
+     *
+     * @return true, ha a gomba kifejlődött.
+     */
+    public boolean getEvolved() {
+        return store.isEvolved(slot);
+    }
+
+
+    /**
+     * Beállítja a gomba fejlettségét.
+     *
+     * @param e true, ha a gomba kifejlődött.
+     */
+    public void setEvolved(boolean e) {
+        store.setEvolved(slot, e);
     }
 
 }
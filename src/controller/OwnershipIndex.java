@@ -0,0 +1,133 @@
+package controller;
+
+import java.util.IdentityHashMap;
+
+import model.IInsectController;
+import model.IMushroomController;
+
+
+/**
+ * Az OwnershipIndex a játék objektumaihoz (rovarok, gombák, fonalak, spórák)
+ * tartozó játékost és a rovarok, gombák asszociációját tartja nyilván, hogy a
+ * tulajdonos megkeresése ne járja végig az összes játékos összes objektumát.
+ * <p>
+ * Az indexet az EntityStore tartja karban: a rovarok és gombák helyének
+ * felszabadításakor, illetve a helyen lévő objektum cseréjekor az index is
+ * frissül, így a rovar megevése, osztódása és a gomba pusztulása után sem
+ * marad benne elavult bejegyzés. Új objektumot a játékosok vesznek fel.
+ */
+public class OwnershipIndex {
+
+    private final IdentityHashMap<Object, Player> owners;
+    private final IdentityHashMap<Object, Object> associations;
+
+
+    /**
+     * Létrehoz egy üres indexet.
+     */
+    OwnershipIndex() {
+        owners = new IdentityHashMap<>();
+        associations = new IdentityHashMap<>();
+    }
+
+
+    /**
+     * Felveszi az objektum tulajdonosát és asszociációját.
+     *
+     * @param entity      Az objektum.
+     * @param owner       A tulajdonos játékos.
+     * @param association Az objektum asszociációja, vagy null.
+     */
+    void put(Object entity, Player owner, Object association) {
+        if (entity == null) {
+            return;
+        }
+        owners.put(entity, owner);
+        if (association != null) {
+            associations.put(entity, association);
+        } else {
+            associations.remove(entity);
+        }
+    }
+
+
+    /**
+     * Kiveszi az objektumot az indexből.
+     *
+     * @param entity Az objektum.
+     */
+    void remove(Object entity) {
+        if (entity != null) {
+            owners.remove(entity);
+            associations.remove(entity);
+        }
+    }
+
+
+    /**
+     * A régi objektum tulajdonosát és asszociációját az újhoz rendeli.
+     *
+     * @param oldEntity A lecserélt objektum.
+     * @param newEntity Az új objektum.
+     */
+    void replace(Object oldEntity, Object newEntity) {
+        if (oldEntity == newEntity || oldEntity == null || !owners.containsKey(oldEntity)) {
+            return;
+        }
+        Player owner = owners.remove(oldEntity);
+        Object association = associations.remove(oldEntity);
+        put(newEntity, owner, association);
+    }
+
+
+    /**
+     * Visszaadja az objektum tulajdonosát.
+     *
+     * @param entity Egy rovar, gomba, fonál vagy spóra.
+     * @return A tulajdonos játékos, vagy null.
+     */
+    public Player getOwner(Object entity) {
+        return entity == null ? null : owners.get(entity);
+    }
+
+
+    /**
+     * @param i A rovar.
+     * @return A rovar rovarásza, vagy null.
+     */
+    public InsectPlayer getInsectPlayer(IInsectController i) {
+        Player p = getOwner(i);
+        return p instanceof InsectPlayer ? (InsectPlayer) p : null;
+    }
+
+
+    /**
+     * @param entity Egy gomba, fonál vagy spóra.
+     * @return Az objektum gombásza, vagy null.
+     */
+    public FungusPlayer getFungusPlayer(Object entity) {
+        Player p = getOwner(entity);
+        return p instanceof FungusPlayer ? (FungusPlayer) p : null;
+    }
+
+
+    /**
+     * @param i A rovar.
+     * @return A rovar asszociációja, vagy null.
+     */
+    public InsectAssociation getInsectAssociation(IInsectController i) {
+        Object a = i == null ? null : associations.get(i);
+        return a instanceof InsectAssociation ? (InsectAssociation) a : null;
+    }
+
+
+    /**
+     * @param m A gomba.
+     * @return A gomba asszociációja, vagy null.
+     */
+    public MushroomAssociation getMushroomAssociation(IMushroomController m) {
+        Object a = m == null ? null : associations.get(m);
+        return a instanceof MushroomAssociation ? (MushroomAssociation) a : null;
+    }
+
+}
@@ -32,9 +32,10 @@ public class Player {
 
     /**
      * Hozzáad egy pontot a játékos jelenlegi pontszámához.
-     * A pontszámot eggyel növeli.
+     * A pontszámot eggyel növeli. A valós idejű ütemben a játékos több
+     * lépése is párhuzamosan szerezhet pontot, ezért a növelés szinkronizált.
      */
-    public void addPoint() {
+    public synchronized void addPoint() {
         points++;
     }
 
@@ -0,0 +1,552 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import model.DeferredEffects;
+import model.ITectonController;
+import model.Insect;
+import model.InsectState;
+import model.ModelEventBus;
+import model.Mushroom;
+import model.MushroomState;
+import model.Spore;
+import model.SporeType;
+import model.Tecton;
+
+
+/**
+ * A RealTimeSession a valós idejű játékmódot valósítja meg, amelyben a
+ * játékosok nem felváltva, hanem egyszerre, tetszőleges szálról adják le a
+ * lépéseiket (rovar lépése és vágása, fonál elágaztatása, spóralövés).
+ * <p>
+ * A leadás szálbiztos, és a modellhez nem nyúl: a lépés csak egy várakozási
+ * sorba kerül. A modell a játék szálán, ütemenként (tick) változik. Ilyenkor
+ * a várakozó lépések rögzített sorrendbe kerülnek: elöl a játékosok ütemenként
+ * körbeforgó prioritása szerint, azon belül a leadás sorrendjében. Mivel egy
+ * játékos lépéseit egyetlen szál adja le, ez a sorrend nem függ attól, hogy a
+ * szálak milyen ütemezéssel futottak.
+ * <p>
+ * Ezután minden lépés a tektonazonosítók növekvő sorrendjében lefoglalja az
+ * érintett tektonokat. Ha valamelyiket egy előtte álló lépés már lefoglalta,
+ * a lépés ütközik, és elutasításra kerül; így egy ütemben egy tektont csak
+ * egyetlen lépés ír. Az elfogadott lépéseket a Controller hajtja végre, a
+ * lépést leadó játékos nevében.
+ * <p>
+ * Az elfogadott lépések egymást követő, helyi lépésekből álló szakaszai
+ * párhuzamosan, egy ForkJoinPool szálain futnak. Egy lépés a tektonjain kívül
+ * a modell közös szerkezeteit (a gráf foglaltsági és felszívó bitsetje, a
+ * kettétörhető tektonok halmaza, az eseménybusz, az ütemező, a megjelenítés)
+ * nem írja közvetlenül, hanem a saját DeferredEffects gyűjtőjébe; a
+ * gyűjtőket a szakasz végén a játék szála a lépések sorrendjében játssza
+ * vissza, az elérhetőségi index pedig a szakasz alatt nem változik. Az
+ * elágaztatás a céltekton szomszédjainak fonalait is olvassa, ezért minden
+ * lépés a tektonazonosítók növekvő sorrendjében zárolja a tektonjait: az
+ * írtakat kizárólagosan, az olvasottakat megosztottan.
+ * <p>
+ * A játéktér egészét érintő lépések (az osztódást kiváltó lépés és a
+ * gombatest halálát okozó tizedik lövés) nem kerülnek szakaszba, hanem a
+ * helyükön, egyedül futnak le; egy gombász második elágaztatása új szakaszt
+ * kezd, mert a fonalán osztozna az elsővel. Így az ütem eredménye azonos a
+ * lépések sorrendben, egy szálon történő végrehajtásáéval, függetlenül a
+ * szálak számától és ütemezésétől.
+ */
+public class RealTimeSession {
+
+    /**
+     * A lépés fajtája.
+     */
+    private enum Kind {
+        MOVE, CUT, BRANCH, SHOOT
+    }
+
+
+    /**
+     * Ennyi lépés alatt egy szakasz párhuzamosítása többe kerül, mint
+     * amennyit nyer.
+     */
+    private static final int PARALLEL_THRESHOLD = 4;
+
+    /**
+     * Egy párhuzamos részfeladat legfeljebb ennyi lépést hajt végre.
+     */
+    private static final int LEAF_SIZE = 2;
+
+
+    /**
+     * Egy leadott, még végre nem hajtott lépés.
+     */
+    private static class Action {
+        private final Kind kind;
+        private Player player;
+        private final Object actor;
+        private final ITectonController target;
+        private final long seq;
+        private int[] locks;
+        private boolean[] exclusive;
+        private DeferredEffects effects;
+
+        Action(Kind kind, Player player, Object actor, ITectonController target, long seq) {
+            this.kind = kind;
+            this.player = player;
+            this.actor = actor;
+            this.target = target;
+            this.seq = seq;
+        }
+    }
+
+
+    private final Controller controller;
+    private final ConcurrentLinkedQueue<Action> submitted;
+    private final AtomicLong sequence;
+    private final BitSet claimed;
+    private final ThreadLocal<Boolean> applying;
+    private ReentrantReadWriteLock[] tectonLocks;
+    private int ticks;
+    private int ticksPerRound;
+    private long applied;
+    private long rejected;
+
+
+    /**
+     * Létrehozza a vezérlő valós idejű munkamenetét.
+     *
+     * @param controller A játékot vezérlő Controller.
+     */
+    RealTimeSession(Controller controller) {
+        this.controller = controller;
+        submitted = new ConcurrentLinkedQueue<>();
+        sequence = new AtomicLong();
+        claimed = new BitSet();
+        applying = new ThreadLocal<>();
+        tectonLocks = new ReentrantReadWriteLock[16];
+        ticks = 0;
+        ticksPerRound = 0;
+        applied = 0;
+        rejected = 0;
+    }
+
+
+    /**
+     * Beállítja, hány ütemenként kezdődjön új kör. 0 esetén a kört a hívó
+     * lépteti.
+     *
+     * @param n Az egy körre jutó ütemek száma.
+     */
+    public void setTicksPerRound(int n) {
+        if (n >= 0)
+            ticksPerRound = n;
+    }
+
+
+    /**
+     * Lead egy rovarlépést. Tetszőleges szálról hívható.
+     *
+     * @param insect A lépő rovar.
+     * @param tecton A céltekton.
+     */
+    public void submitMove(Insect insect, ITectonController tecton) {
+        submit(Kind.MOVE, null, insect, tecton);
+    }
+
+
+    /**
+     * Lead egy fonálvágást. Tetszőleges szálról hívható.
+     *
+     * @param insect A vágó rovar.
+     * @param tecton A tekton, amelyen a vágás történik.
+     */
+    public void submitCut(Insect insect, ITectonController tecton) {
+        submit(Kind.CUT, null, insect, tecton);
+    }
+
+
+    /**
+     * Lead egy fonálelágaztatást. Tetszőleges szálról hívható.
+     *
+     * @param player Az elágaztató gombász.
+     * @param tecton A céltekton.
+     */
+    public void submitBranch(FungusPlayer player, ITectonController tecton) {
+        submit(Kind.BRANCH, player, null, tecton);
+    }
+
+
+    /**
+     * Lead egy spóralövést. Tetszőleges szálról hívható.
+     *
+     * @param m      A lövő gombatest.
+     * @param tecton A céltekton.
+     */
+    public void submitShoot(Mushroom m, ITectonController tecton) {
+        submit(Kind.SHOOT, null, m, tecton);
+    }
+
+
+    private void submit(Kind kind, Player player, Object actor, ITectonController target) {
+        if ((player == null && actor == null) || target == null) {
+            return;
+        }
+        submitted.add(new Action(kind, player, actor, target, sequence.getAndIncrement()));
+    }
+
+
+    /**
+     * Megadja, hogy a hívó szál éppen a munkamenet ütemét hajtja-e végre,
+     * vagyis hogy a Controller lépései közvetlenül futhatnak-e.
+     *
+     * @return true, ha a hívó szál az ütemet végrehajtó szál.
+     */
+    public boolean isApplyingThread() {
+        return applying.get() != null;
+    }
+
+
+    /**
+     * Végrehajt egy ütemet: sorba rendezi és lefoglalja a várakozó lépéseket,
+     * majd végrehajtja az ütközés nélkülieket, a helyi lépések szakaszait
+     * párhuzamosan. A játék szálán kell hívni.
+     *
+     * @return Az ütemben végrehajtott lépések száma.
+     */
+    public int tick() {
+        List<Action> pending = new ArrayList<>();
+        Action a;
+        while ((a = submitted.poll()) != null) {
+            // a szereplő játékosát már a játék szálán keresem meg
+            if (a.player == null) {
+                a.player = a.kind == Kind.SHOOT
+                        ? controller.getMushroomPlayer((Mushroom) a.actor)
+                        : controller.getInsectPlayer((Insect) a.actor);
+            }
+            if (a.player == null) {
+                rejected++;
+            } else {
+                pending.add(a);
+            }
+        }
+
+        Map<Player, Integer> priority = priorities();
+        pending.sort((x, y) -> {
+            int c = Integer.compare(priority.getOrDefault(x.player, Integer.MAX_VALUE),
+                    priority.getOrDefault(y.player, Integer.MAX_VALUE));
+            return c != 0 ? c : Long.compare(x.seq, y.seq);
+        });
+
+        List<Action> accepted = new ArrayList<>();
+        claimed.clear();
+        for (Action action : pending) {
+            int[] footprint = footprint(action);
+            if (footprint == null || !claim(footprint)) {
+                rejected++;
+            } else {
+                plan(action, footprint);
+                accepted.add(action);
+            }
+        }
+
+        ModelEventBus events = controller.getGraph().getEvents();
+        events.beginBatch();
+        try {
+            int k = 0;
+            while (k < accepted.size()) {
+                Action first = accepted.get(k);
+                if (isGlobal(first)) {
+                    apply(first);
+                    k++;
+                } else {
+                    int end = segmentEnd(accepted, k);
+                    applySegment(accepted.subList(k, end));
+                    k = end;
+                }
+            }
+        } finally {
+            events.endBatch();
+        }
+        applied += accepted.size();
+
+        ticks++;
+        if (ticksPerRound > 0 && ticks % ticksPerRound == 0) {
+            controller.initRound();
+        }
+        return accepted.size();
+    }
+
+
+    /**
+     * @return Az eddig végrehajtott lépések száma.
+     */
+    public long getApplied() {
+        return applied;
+    }
+
+
+    /**
+     * @return Az eddig ütközés vagy érvénytelen cél miatt elutasított lépések száma.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+
+    /**
+     * A játékosok ütemenként körbeforgó prioritása: ebben az ütemben a
+     * (tick mod játékosszám). játékos az első.
+     */
+    private Map<Player, Integer> priorities() {
+        List<Player> players = new ArrayList<>(controller.getFungusPlayers());
+        players.addAll(controller.getInsectPlayers());
+        Map<Player, Integer> priority = new IdentityHashMap<>();
+        int n = players.size();
+        for (int i = 0; i < n; i++) {
+            priority.put(players.get(i), Math.floorMod(i - ticks, n));
+        }
+        return priority;
+    }
+
+
+    /**
+     * Visszaadja a lépés által érintett tektonok azonosítóit növekvő
+     * sorrendben, vagy null-t, ha a lépés szereplője már nincs a játéktéren.
+     */
+    private int[] footprint(Action action) {
+        int target = ((Tecton) action.target).getId();
+        Tecton from;
+        switch (action.kind) {
+            case MOVE:
+            case CUT:
+                from = ((Insect) action.actor).getPosition();
+                break;
+            case SHOOT:
+                from = ((Mushroom) action.actor).getPosition();
+                break;
+            default:
+                return new int[]{target};
+        }
+        if (from == null) {
+            return null;
+        }
+        int source = from.getId();
+        if (source == target) {
+            return new int[]{source};
+        }
+        return new int[]{Math.min(source, target), Math.max(source, target)};
+    }
+
+
+    /**
+     * Lefoglalja a tektonokat, ha egyiket sem foglalta le korábbi lépés.
+     */
+    private boolean claim(int[] footprint) {
+        for (int id : footprint) {
+            if (id < 0 || claimed.get(id)) {
+                return false;
+            }
+        }
+        for (int id : footprint) {
+            claimed.set(id);
+        }
+        return true;
+    }
+
+
+    /**
+     * Előkészíti az elfogadott lépés végrehajtását: kiszámolja a zárolandó
+     * tektonokat növekvő sorrendben (az elágaztatásnál a céltekton
+     * szomszédjait megosztott zárral), és a fejlett gombatest lövéséhez előre
+     * elkészíti a céltekton elérhetőségi sorát, mert a párhuzamos szakaszban
+     * az index nem töltődhet.
+     */
+    private void plan(Action action, int[] footprint) {
+        Tecton target = (Tecton) action.target;
+        BitSet ids = new BitSet();
+        for (int id : footprint) {
+            ids.set(id);
+        }
+        if (action.kind == Kind.BRANCH) {
+            target.forEachNeighbor(n -> ids.set(n.getId()));
+        }
+        action.locks = ids.stream().toArray();
+        action.exclusive = new boolean[action.locks.length];
+        for (int i = 0; i < action.locks.length; i++) {
+            int id = action.locks[i];
+            for (int w : footprint) {
+                action.exclusive[i] |= w == id;
+            }
+            if (id >= tectonLocks.length) {
+                tectonLocks = Arrays.copyOf(tectonLocks, Math.max(id + 1, tectonLocks.length * 2));
+            }
+            if (tectonLocks[id] == null) {
+                tectonLocks[id] = new ReentrantReadWriteLock();
+            }
+        }
+
+        if (action.kind == Kind.SHOOT && ((Mushroom) action.actor).getState() == MushroomState.EVOLVED) {
+            controller.getGraph().getHopIndex().prepare(target.getId());
+        }
+    }
+
+
+    /**
+     * Megadja, hogy a lépés a saját tektonjain túl a játéktér egészét is
+     * érintheti-e: a rovar lépése osztódást vált ki, ha a céltekton első
+     * spórája osztódó, vagy a rovar már osztódó állapotban van; a lövés a
+     * gombatest tizedik lövése, amely után a gombatest és a hozzá már nem
+     * kapcsolódó fonalak megszűnnek. Az ilyen lépés egyedül fut le.
+     */
+    private boolean isGlobal(Action action) {
+        switch (action.kind) {
+            case MOVE:
+                Spore first = action.target.peekSpore();
+                return ((Insect) action.actor).getState() == InsectState.DIVIDED
+                        || (first != null && first.getType() == SporeType.DIVIDING);
+            case SHOOT:
+                return ((Mushroom) action.actor).getShootedSporesCount() >= 9;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Visszaadja a from indexen kezdődő szakasz végét: a szakasz a következő,
+     * a játéktér egészét érintő lépés előtt, vagy egy gombász második
+     * elágaztatása előtt ér véget.
+     */
+    private int segmentEnd(List<Action> accepted, int from) {
+        Set<Player> branching = Collections.newSetFromMap(new IdentityHashMap<>());
+        int k = from;
+        while (k < accepted.size()) {
+            Action action = accepted.get(k);
+            if (isGlobal(action) || (action.kind == Kind.BRANCH && !branching.add(action.player))) {
+                break;
+            }
+            k++;
+        }
+        return k;
+    }
+
+
+    /**
+     * Végrehajtja a helyi lépések egy szakaszát. Kis szakasz egy szálon fut;
+     * egyébként a lépések párhuzamosan, a saját gyűjtőjükbe írva futnak, majd
+     * a gyűjtők a lépések sorrendjében visszajátszásra kerülnek.
+     */
+    private void applySegment(List<Action> segment) {
+        if (segment.size() < PARALLEL_THRESHOLD) {
+            for (Action action : segment) {
+                apply(action);
+            }
+            return;
+        }
+        for (Action action : segment) {
+            action.effects = new DeferredEffects();
+        }
+        controller.runParallel(() ->
+                ForkJoinPool.commonPool().invoke(new SegmentTask(this, segment, 0, segment.size())));
+        for (Action action : segment) {
+            action.effects.apply();
+            action.effects = null;
+        }
+    }
+
+
+    /**
+     * A párhuzamos szakasz egy lépését hajtja végre: a tektonjait növekvő
+     * azonosító szerint zárolja, és a lépést a gyűjtőjébe írva futtatja.
+     */
+    private void applyLocked(Action action) {
+        Lock[] held = new Lock[action.locks.length];
+        for (int i = 0; i < held.length; i++) {
+            ReentrantReadWriteLock lock = tectonLocks[action.locks[i]];
+            held[i] = action.exclusive[i] ? lock.writeLock() : lock.readLock();
+            held[i].lock();
+        }
+        try {
+            action.effects.record(() -> apply(action));
+        } finally {
+            for (int i = held.length - 1; i >= 0; i--) {
+                held[i].unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Végrehajtja a lépést a leadó játékos nevében a hívó szálon.
+     */
+    private void apply(Action action) {
+        applying.set(Boolean.TRUE);
+        try {
+            controller.actAs(action.player, () -> perform(action));
+        } finally {
+            applying.remove();
+        }
+    }
+
+
+    private void perform(Action action) {
+        switch (action.kind) {
+            case MOVE:
+                controller.move((Insect) action.actor, action.target);
+                break;
+            case CUT:
+                controller.cut((Insect) action.actor, action.target);
+                break;
+            case BRANCH:
+                controller.branchThread((FungusPlayer) action.player, action.target);
+                break;
+            case SHOOT:
+                controller.shootSpore((Mushroom) action.actor, action.target);
+                break;
+        }
+    }
+
+
+    /**
+     * Egy szakasz lépéseinek egy részét hajtja végre, a részt szükség
+     * esetén kettéosztva.
+     */
+    private static class SegmentTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient RealTimeSession session;
+        private final transient List<Action> segment;
+        private final int lo;
+        private final int hi;
+
+        SegmentTask(RealTimeSession session, List<Action> segment, int lo, int hi) {
+            this.session = session;
+            this.segment = segment;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LEAF_SIZE) {
+                for (int k = lo; k < hi; k++) {
+                    session.applyLocked(segment.get(k));
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SegmentTask(session, segment, lo, mid),
+                    new SegmentTask(session, segment, mid, hi));
+        }
+    }
+
+}
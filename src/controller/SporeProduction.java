@@ -0,0 +1,96 @@
+package controller;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.SporeType;
+
+
+/**
+ * A SporeProduction a kör spóratermelését végzi el: minden gombatest egy új,
+ * előre kisorsolt fajtájú spórát kap.
+ * <p>
+ * A spórák fajtáit a Controller egy szálon, a játékosok és a gombatestek
+ * sorrendjében sorsolja ki, így a véletlen sorozat ugyanaz, mint soros
+ * termelésnél. A spórák gombatestekbe kerülése játékosonként párhuzamosan, egy
+ * ForkJoinPool szálain fut: egy játékos termelése csak a saját gombatestjeinek
+ * spóralistáját és a saját fonalának közös spóráit érinti, tektont nem, ezért
+ * a játékosok munkája nem fed át, és az eredményt nem kell összefésülni.
+ */
+final class SporeProduction {
+
+    /**
+     * Ennyi játékos alatt a párhuzamosítás többe kerül, mint amennyit nyer.
+     */
+    private static final int PARALLEL_THRESHOLD = 2;
+
+
+    private SporeProduction() {
+    }
+
+
+    /**
+     * Minden gombatestbe beteszi a neki kisorsolt spórát.
+     *
+     * @param players A gombászok.
+     * @param types   Játékosonként a gombatestek spóráinak fajtái, a
+     *                gombatestek sorrendjében.
+     */
+    static void produceAll(List<FungusPlayer> players, SporeType[][] types) {
+        int n = players.size();
+        if (n < PARALLEL_THRESHOLD) {
+            for (int p = 0; p < n; p++) {
+                produce(players.get(p), types[p]);
+            }
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ProduceTask(players, types, 0, n));
+    }
+
+
+    /**
+     * Egy játékos gombatestjeibe teszi a spórákat.
+     */
+    private static void produce(FungusPlayer player, SporeType[] types) {
+        List<MushroomAssociation> mushrooms = player.getMushrooms();
+        for (int k = 0; k < types.length; k++) {
+            // a fonál közös spórája kerül a gombába, új objektum nem jön létre
+            mushrooms.get(k).getMushroom().generateSpore(types[k]);
+        }
+    }
+
+
+    /**
+     * A játékosok egy szakaszára végzi el a termelést, a szakaszt szükség
+     * esetén kettéosztva.
+     */
+    private static class ProduceTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<FungusPlayer> players;
+        private final transient SporeType[][] types;
+        private final int lo;
+        private final int hi;
+
+        ProduceTask(List<FungusPlayer> players, SporeType[][] types, int lo, int hi) {
+            this.players = players;
+            this.types = types;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                produce(players.get(lo), types[lo]);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ProduceTask(players, types, lo, mid),
+                    new ProduceTask(players, types, mid, hi));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package controller;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A TurnScheduler a játékosok körön belüli sorrendjét tartja nyilván: előbb a
+ * gombászok, majd a rovarászok következnek, létrehozásuk sorrendjében, és az
+ * utolsó után ismét az első. A sorrend a játékosok létrehozásakor egyszer
+ * készül el, a következő játékos megkeresése ezután állandó idejű.
+ * <p>
+ * A körben szereplő sorszám (generáció) minden léptetéskor nő; a soron
+ * következő játékosra előre elvégzett számítások ezzel ellenőrzik, hogy a
+ * lépés, amelyre készültek, még aktuális-e.
+ */
+class TurnScheduler {
+
+    private Player[] order;
+    private final Map<Player, Integer> positions;
+    private int generation;
+
+
+    /**
+     * Létrehoz egy üres sorrendet.
+     */
+    TurnScheduler() {
+        order = new Player[0];
+        positions = new IdentityHashMap<>();
+        generation = 0;
+    }
+
+
+    /**
+     * Újraépíti a sorrendet a játékosok listáiból.
+     *
+     * @param fungusPlayers A gombászok.
+     * @param insectPlayers A rovarászok.
+     */
+    void rebuild(List<FungusPlayer> fungusPlayers, List<InsectPlayer> insectPlayers) {
+        order = new Player[fungusPlayers.size() + insectPlayers.size()];
+        positions.clear();
+        int i = 0;
+        for (Player p : fungusPlayers) {
+            positions.put(p, i);
+            order[i++] = p;
+        }
+        for (Player p : insectPlayers) {
+            positions.put(p, i);
+            order[i++] = p;
+        }
+        generation++;
+    }
+
+
+    /**
+     * @return Az első játékos, vagy null, ha nincs játékos.
+     */
+    Player first() {
+        return order.length == 0 ? null : order[0];
+    }
+
+
+    /**
+     * Visszaadja a játékos után következő játékost.
+     *
+     * @param player A játékos.
+     * @return A következő játékos, vagy null, ha a játékos nem szerepel a
+     * sorrendben.
+     */
+    Player next(Player player) {
+        Integer at = player == null ? null : positions.get(player);
+        if (at == null) {
+            return null;
+        }
+        return order[(at + 1) % order.length];
+    }
+
+
+    /**
+     * Megadja, hogy a játékos után új kör kezdődik-e, vagyis ő-e a sorrend
+     * utolsó tagja.
+     *
+     * @param player A játékos.
+     * @return true, ha a játékos az utolsó a sorrendben.
+     */
+    boolean isLast(Player player) {
+        Integer at = player == null ? null : positions.get(player);
+        return at != null && at == order.length - 1;
+    }
+
+
+    /**
+     * Jelzi, hogy a lépés a következő játékosra került.
+     *
+     * @return Az új lépés generációja.
+     */
+    int advance() {
+        return ++generation;
+    }
+
+
+    /**
+     * @return Az aktuális lépés generációja.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+}
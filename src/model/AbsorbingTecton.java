@@ -1,6 +1,5 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -11,15 +10,13 @@ import java.util.List;
  */
 public class AbsorbingTecton extends Tecton {
 
-    private List<FungalThread> threads;
 
 
     /**
-     * Konstruktor, amely inicializálja az threads listát.
+     * Konstruktor, amely létrehozza a tektont.
      */
     public AbsorbingTecton() {
         super();
-        threads = new ArrayList();
     }
 
 
@@ -46,53 +43,42 @@ public class AbsorbingTecton extends Tecton {
     }
 
 
-    /**
-     * Beállítja az aktuális objektumhoz tartozó gombafonalak listáját.
-     *
-     * @param list A gombafonalakat tartalmazó lista, amely az objektumhoz kerül hozzárendelésre.
-     */
-    public void setThreads(List<FungalThread> list) {
-        threads = list;
-    }
-
-
-    /**
-     * Visszaadja az objektumhoz tartozó gombafonalak listáját.
-     *
-     * @return A gombafonalak listája, amely ehhez az objektumhoz tartozik.
-     */
-    public List<FungalThread> getThreads() {
-        //visszaadja a fonalakat
-        return threads;
-    }
-
-
     /**
      * Eltávolítja az aktuális objektum listájában található összes FungalThread (gombafonal)
      * objektumot, és törli a nem szükséges gombafonalakat.
      * <p>
      * A metódus először eltávolítja az aktuális objektumot az összes kapcsolódó
-     * FungalThread objektum tartalmából. Ezután létrehoz egy új listát, amelybe átmásolja
-     * az eredeti gombafonalakat, majd az eredeti listát kiüríti. A másolt elemekre végrehajtja
-     * a törlési műveletet, amely eltávolítja azokat a fonalrészeket, amelyek nem kapcsolódnak
+     * FungalThread objektum tartalmából, így a tekton fonálhalmaza is kiürül. Ezután a
+     * levett fonalakra végrehajtja a törlési műveletet, amely eltávolítja azokat a fonalrészeket, amelyek nem kapcsolódnak
      * azonos fajhoz tartozó gombatesthez.
      */
     public void absorb() {
 
-        for (int i = 0; i < threads.size(); i++) {
+        beginBatch();
+        List<FungalThread> fungal = getThreads();
+        for (int i = 0; i < fungal.size(); i++) {
             // levesszük róla a fonalakat
-            threads.get(i).removeTecton(this);
+            fungal.get(i).removeTecton(this);
         }
 
-        List<FungalThread> fungal = new ArrayList<>();
-        fungal.addAll(threads);
-        threads.clear();
-
-        for (int i = 0; i < fungal.size(); i++) {
-            // töröljük azon fonálrészeket, amelyek nem kapcsolódnak ugyanolyan fajból
-            // származó gombatesthez
-            fungal.get(i).deleteUnnecessaryThreads();
+        // töröljük azon fonálrészeket, amelyek nem kapcsolódnak ugyanolyan fajból
+        // származó gombatesthez
+        ThreadCleanup.pruneAll(fungal);
+        if (!fungal.isEmpty()) {
+            emit(ModelEventType.TECTON_ABSORBED, null);
         }
+        endBatch();
+    }
+
+
+    /**
+     * Az AbsorbingTecton felszívja a rajta lévő fonalakat.
+     *
+     * @return true.
+     */
+    @Override
+    protected boolean absorbsThreads() {
+        return true;
     }
 
 
@@ -116,13 +102,9 @@ public class AbsorbingTecton extends Tecton {
      * false, ha nem található a megadott szomszédságokban.
      */
     public boolean putThread(FungalThread f) {
-        for (Tecton tecton : neighbors) {
-            if(tecton != null){
-                if (tecton.getThreads().contains(f)) {
-                    threads.add(f);
-                    return true;
-                }
-            }
+        if (hasNeighborWithThread(f)) {
+            linkThread(f);
+            return true;
         }
         return false;
     }
@@ -140,18 +122,6 @@ public class AbsorbingTecton extends Tecton {
     }
 
 
-    /**
-     * Eltávolítja a megadott gombafonalat az aktuális objektumhoz tartozó listából.
-     *
-     * @param f Az a FungalThread objektum, amelyet el szeretnénk távolítani az aktuális objektumhoz tartozó listából.
-     * @return true, ha a művelet sikeres volt.
-     */
-    public boolean removeThread(FungalThread f) {
-        threads.remove(f);
-        return true;
-    }
-
-
     /**
      * A metódus kettétöri az aktuális tekton-t két különálló tekton-ra (t6 és t7).
      * Az eredeti szomszédságokat és kapcsolódó struktúrákat frissíti a művelet során.
@@ -160,73 +130,17 @@ public class AbsorbingTecton extends Tecton {
      * @return true, ha a tekton sikeresen kettétört.
      */
     public List<Tecton> breakTecton() {
+        return split();
+    }
 
-        List<Tecton> ret = new ArrayList<>();
-        // létrejön a két új tekton
-        Tecton t6 = new AbsorbingTecton();
-        Tecton t7 = new AbsorbingTecton();
-
-        ret.add(t6);
-        ret.add(t7);
-
-        // ez lesz a töréspont a tektonon
-        int centre = neighbors.size() / 2;
-
-        // létrehozok egy listát, amelyben a t6 tekton szomszédai lesznek
-        List<Tecton> neighborList = new ArrayList<>();
-        for (int i = 0; i < centre; i++) {
-            neighborList.add(neighbors.get(i));
-        }
-        neighborList.add(t7);
-
-        // beállítom a t6 szomszédait
-        t6.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // létrehozok egy listát, amelyben a t7 szomszédai lesznek
-        neighborList.add(t6);
-        for (int i = centre; i < neighbors.size(); i++) {
-            neighborList.add(neighbors.get(i));
-        }
-
-        // beállítom a t7 szomszédait
-        t7.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // a jelenlegi tekton szomszédait beállítom, hozzáadva szomszédsági listájukhoz
-        // a megfelelő létrejött tektont
-        // valamint kivéve a kettétörött tektont
-        for (int i = 0; i < centre; i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t6);
-            }
-        }
-
-        for (int i = centre; i < neighbors.size(); i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t7);
-            }
-        }
-
-        if(i!=null){
-            // a tektonon levő bogarat ráhelyezem a t6-ra
-            t6.setInsect(i);
-            // beállítom a bogár pozícióját
-            i.setPosition(t6);
-        }
-
-        // kitörlöm a tektont a fonálról
-        for (int i = 0; i < threads.size(); i++) {
-            threads.get(i).removeTecton(this);
-        }
-
-        // ha keletkezett olyan fonálrész, amely a kettétörés során már nem kapcsolódik
-        // gombatesthez ezt eltávolítom
-        for (int i = 0; i < threads.size(); i++) {
-            threads.get(i).deleteUnnecessaryThreads();
-        }
 
-        return ret;
+    /**
+     * Létrehoz egy új AbsorbingTecton-t, a kettétörés egyik darabját.
+     *
+     * @return Az új tekton.
+     */
+    protected Tecton createPiece() {
+        return new AbsorbingTecton();
     }
 
 
@@ -262,7 +176,7 @@ public class AbsorbingTecton extends Tecton {
      * @param f A FungalThread objektum, amelyet hozzá szeretnénk adni az objektumhoz
      */
     public void addThread(FungalThread f) {
-        threads.add(f);
+        linkThread(f);
     }
 
 
@@ -0,0 +1,89 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DeferredEffects egy párhuzamosan végrehajtott lépés azon hatásait gyűjti,
+ * amelyek a modell közös, több tektont átfogó szerkezeteit írnák (a gráf
+ * foglaltsági és felszívó bitsetje, a kettétörhető tektonok halmaza, az
+ * eseménybusz, az ütemező). A lépés ezek helyett a saját listájába írja a
+ * változást, a listákat pedig a hívó a lépések rögzített sorrendjében,
+ * egyetlen szálon játssza vissza.
+ * <p>
+ * A lépés a record idejére a végrehajtó szálhoz kötődik; a modell a current
+ * hívással éri el az éppen futó lépés gyűjtőjét.
+ */
+public final class DeferredEffects {
+
+    private static final ThreadLocal<DeferredEffects> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> effects;
+
+
+    /**
+     * Létrehoz egy üres gyűjtőt.
+     */
+    public DeferredEffects() {
+        effects = new ArrayList<>();
+    }
+
+
+    /**
+     * Végrehajtja a lépést úgy, hogy a közös szerkezetek írásai ebbe a
+     * gyűjtőbe kerüljenek.
+     *
+     * @param action A lépés.
+     */
+    public void record(Runnable action) {
+        DeferredEffects previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+
+    /**
+     * Visszaadja a hívó szálon éppen futó lépés gyűjtőjét.
+     *
+     * @return A gyűjtő.
+     * @throws IllegalStateException ha a szálon nem fut rögzített lépés.
+     */
+    public static DeferredEffects current() {
+        DeferredEffects d = CURRENT.get();
+        if (d == null) {
+            throw new IllegalStateException("Párhuzamos végrehajtás alatt a közös állapot csak lépésből írható");
+        }
+        return d;
+    }
+
+
+    /**
+     * Felvesz egy hatást, amely a visszajátszáskor fut le.
+     *
+     * @param effect A hatás.
+     */
+    public void defer(Runnable effect) {
+        effects.add(effect);
+    }
+
+
+    /**
+     * Lefuttatja a felvett hatásokat a felvételük sorrendjében, majd kiüríti
+     * a gyűjtőt.
+     */
+    public void apply() {
+        for (Runnable effect : effects) {
+            effect.run();
+        }
+        effects.clear();
+    }
+
+}
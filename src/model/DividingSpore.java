@@ -24,4 +24,14 @@ public class DividingSpore extends Spore {
         i.setState(InsectState.DIVIDED);
     }
 
+
+    /**
+     * Visszaadja a spóra fajtáját.
+     *
+     * @return SporeType.DIVIDING
+     */
+    public SporeType getType() {
+        return SporeType.DIVIDING;
+    }
+
 }
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -13,19 +14,114 @@ import java.util.List;
  */
 public abstract class FungalThread implements IFungalThreadController, IFungalThreadView {
 
-    private List<Tecton> tectons;
+    /**
+     * Az ütemező fázisa, amelyben az elvágott fonálrészek megszűnnek.
+     */
+    public static final int DECAY_PHASE = 0;
+
+    private final BitSet tectonSet;
     protected List<timeToDie> life;
+    private final ThreadConnectivity connectivity;
+
+    private TectonGraph graph;
+    private int id;
+    private RoundScheduler scheduler;
+
+    private final Spore[] spores;
 
 
     /**
      * A FungalThread konstruktora, amely inicializálja a szükséges adattagokat.
-     * A konstruktor létrehozza és inicializálja a tectons és life listákat, amelyek
-     * a fonál működéséhez és kapcsolódásainak kezeléséhez szükséges információkat
-     * tárolják.
+     * A konstruktor létrehozza és inicializálja a tektonok halmazát és a life listát,
+     * amelyek a fonál működéséhez és kapcsolódásainak kezeléséhez szükséges
+     * információkat tárolják.
      */
     public FungalThread() {
-        tectons = new ArrayList<>();
+        tectonSet = new BitSet();
         life = new ArrayList<>();
+        connectivity = new ThreadConnectivity(this);
+        graph = null;
+        id = -1;
+        scheduler = null;
+        spores = new Spore[SporeType.values().length];
+    }
+
+
+    /**
+     * Megadja, hogy a tekton a fonál tektonjai között van-e, a fonál saját
+     * nyilvántartása szerint.
+     *
+     * @param t A vizsgált tekton.
+     * @return true, ha a fonál tektonjainak bitsetje tartalmazza a tektont.
+     */
+    boolean hasTecton(Tecton t) {
+        return t != null && graph != null && t.getGraphIfBound() == graph && tectonSet.get(t.getId());
+    }
+
+
+    /**
+     * Visszaadja a fonál adott fajtájú spóráját. A spórának a fonalán és a
+     * fajtáján kívül nincs állapota, ezért fonalanként és fajtánként egyetlen
+     * példány létezik, amelyet minden gomba és tekton közösen használ.
+     *
+     * @param type A spóra fajtája.
+     * @return A fonál adott fajtájú spórája.
+     */
+    public Spore getSpore(SporeType type) {
+        Spore sp = spores[type.ordinal()];
+        if (sp == null) {
+            sp = type.newSpore();
+            sp.setThread(this);
+            spores[type.ordinal()] = sp;
+        }
+        return sp;
+    }
+
+
+    /**
+     * A gráf hívja a fonál felvételekor; beállítja a fonál gráfját és azonosítóját.
+     */
+    void bind(TectonGraph g, int id) {
+        this.graph = g;
+        this.id = id;
+    }
+
+
+    /**
+     * Visszaadja a gráfot, amelyhez a fonál tartozik, vagy null-t, ha a fonál
+     * még egy tektonra sem került.
+     */
+    TectonGraph getGraph() {
+        return graph;
+    }
+
+
+    /**
+     * Visszaadja a fonál gráfbeli azonosítóját.
+     *
+     * @return A fonál azonosítója, vagy -1, ha még nincs gráfban.
+     */
+    public int getId() {
+        return id;
+    }
+
+
+    /**
+     * A tekton hívja, amikor a fonál rákerül; a fonál oldali bitsetet és az
+     * összefüggőségi nyilvántartást frissíti.
+     */
+    void attach(Tecton t) {
+        tectonSet.set(t.getId());
+        connectivity.add(t);
+    }
+
+
+    /**
+     * A tekton hívja, amikor a fonál lekerül róla.
+     */
+    void detach(Tecton t) {
+        tectonSet.clear(t.getId());
+        connectivity.remove(t);
     }
 
 
@@ -35,17 +131,28 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * @param tectons A tectonok listája, amelyeket be kell állítani.
      */
     public void setTectons(List<Tecton> tectons) {
-        this.tectons = tectons;
+        for (Tecton t : getTectons()) {
+            if (!tectons.contains(t)) {
+                t.unlinkThread(this);
+            }
+        }
+        for (Tecton t : tectons) {
+            t.linkThread(this);
+        }
     }
 
 
     /**
-     * Visszaadja a jelenlegi tectonok listáját.
+     * Visszaadja a jelenlegi tectonok listáját, azonosító szerinti sorrendben.
      *
-     * @return egy lista, amely tartalmazza az összes tectont
+     * @return egy új lista, amely tartalmazza az összes tectont
      */
     public List<Tecton> getTectons() {
-        return tectons;
+        List<Tecton> list = new ArrayList<>();
+        for (int tid = tectonSet.nextSetBit(0); tid >= 0; tid = tectonSet.nextSetBit(tid + 1)) {
+            list.add(graph.getTecton(tid));
+        }
+        return list;
     }
 
 
@@ -54,54 +161,52 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * tectonokkal, amelyek az adott FungalThread objektumból származnak.
      * A metódus célja, hogy biztosítsa, hogy csak azok a fonálszálak és tectonok maradjanak meg,
      * amelyek ténylegesen kapcsolódnak egy gombatesthez és aktívan hozzájárulnak a fonál működéséhez.
+     * <p>
+     * A fonál összefüggő részeit a ThreadConnectivity tartja nyilván, így csak azok a részek
+     * kerülnek újraszámolásra, amelyekből a legutóbbi hívás óta tekton került le.
+     *
+     * @return A fonálról levett tektonok listája.
      */
-    public void deleteUnnecessaryThreads() {
-
-        // létrehozok két segéd listát
-        List<Tecton> fungalList = new ArrayList<>();
-        List<Tecton> connectedTectons = new ArrayList<>();
+    public List<Tecton> deleteUnnecessaryThreads() {
+        List<Tecton> pruned = computePrune();
+        applyPrune(pruned);
+        return pruned;
+    }
 
-        // végigmegyek a tectons listán, megnézem melyik tektonon van gomba, ezt
-        // elmentem a fungalList listába
-        for (int i = 0; i < tectons.size(); i++) {
 
-            // megnézem, ha van-e rajta gombatest
-            if ((tectons.get(i).isConnected(this))) {
-                fungalList.add(tectons.get(i));
-            }
-        }
+    /**
+     * Meghatározza a fonál gombatesthez már nem kapcsolódó tektonjait. A
+     * metódus csak a fonál saját nyilvántartását módosítja, a tektonokat nem,
+     * ezért különböző fonalakra párhuzamosan is hívható.
+     *
+     * @return A fonálról leveendő tektonok listája.
+     */
+    List<Tecton> computePrune() {
+        return connectivity.prune();
+    }
 
-        // megkeresem azokat a fonálrészeket, amelyek kapcsolatban vannak ugyanolyan
-        // fajból származó gombatesttel
-        while (!fungalList.isEmpty()) {
-            connectedTectons.add(fungalList.get(0));
 
-            // megnézem, hogy tectons.get(0) szomszédai közül melyeken van elágazva a fonál
-            List<Tecton> list = fungalList.get(0).getThreadSection(this);
-            for (int i = 0; i < list.size(); i++) {
-                if (!connectedTectons.contains(list.get(i))) {
-                    fungalList.add(list.get(i));
-                }
-            }
-            fungalList.remove(0);
+    /**
+     * Leveszi a fonalat a computePrune által meghatározott tektonokról.
+     *
+     * @param pruned A leveendő tektonok listája.
+     */
+    void applyPrune(List<Tecton> pruned) {
+        // leveszem a tektonokról a fonalat
+        for (Tecton t : pruned) {
+            t.removeThread(this);
         }
+    }
 
-        // Végigmegyek a tectons listán, majd azokról a tectonokról, amelyeken
-        // olyanfonálrészek vannak,
-        // amelyek nincsenek kapcsolatban ugyanolyan fajból származó gombatesttel
-        // leszedjük a fonalat
-        List<Tecton> removallist = new ArrayList<>();
-        for (int i = 0; i < tectons.size(); i++) {
-            if (!connectedTectons.contains(tectons.get(i))) {
-
-                // leveszem a tektonokról a fonalat
-                tectons.get(i).removeThread(this);
-                removallist.add(tectons.get(i));
-            }
-        }
-        for (int i = 0; i < removallist.size(); i++) {
-            tectons.remove(removallist.get(i));
-        }
+
+    /**
+     * Megadja, hogy a tekton a fonál olyan részén van-e, amelyhez gombatest kapcsolódik.
+     *
+     * @param t A vizsgált tekton.
+     * @return true, ha a tekton a fonál része, és gombatesthez kapcsolódik, különben false.
+     */
+    public boolean isAttached(Tecton t) {
+        return connectivity.isAttached(t);
     }
 
 
@@ -114,15 +219,10 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * csatlakozás nem sikerült.
      */
     public boolean branchThread(Tecton t) {
-        if (t.getThreads().contains(this)) {
+        if (t.hasThread(this)) {
             return false;
         }
-        if (!t.putThread(this)) {
-            return false;
-        } else {
-            tectons.add(t);
-            return true;
-        }
+        return t.putThread(this);
     }
 
 
@@ -135,7 +235,8 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * false egyébként
      */
     public boolean addTecton(Tecton t) {
-        return tectons.add(t);
+        t.linkThread(this);
+        return true;
     }
 
 
@@ -147,7 +248,7 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      */
     public boolean removeTecton(Tecton t) {
 
-        tectons.remove(t);
+        t.unlinkThread(this);
         return true;
     }
 
@@ -163,16 +264,9 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      */
     public boolean growMushroom(Tecton t, Mushroom m) {
 
-        if (t.canPutMushroom() && t.getThreads().contains(this)) {
+        if (t.canPutMushroom() && t.hasThread(this)) {
             if (t.getMushroom() == null) {
-                List<Spore> slist = t.getSpores();
-                int thisSporeCount = 0;
-
-                for (int i = 0; i < slist.size(); i++) {
-                    if (slist.get(i).getThread() == this) {
-                        thisSporeCount += 1;
-                    }
-                }
+                int thisSporeCount = t.sporeCount(this);
 
                 boolean canGrow = false;
                 if (thisSporeCount >= 3) {
@@ -186,6 +280,7 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
                 m.setPosition(t);
                 m.setThread(this);
 
+                // a gombatest alatt csak ez a fonál marad meg
                 List<FungalThread> thisThread = new ArrayList<>();
                 thisThread.add(this);
                 t.setThreads(thisThread);
@@ -215,6 +310,38 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
     public abstract boolean sendToDie(Tecton t);
 
 
+    /**
+     * Beállítja a fonál ütemezőjét. Ütemező esetén az elvágott fonálrészek
+     * megszűnése a megfelelő körre ütemezett eseményként történik, a life
+     * lista körönkénti végignézése nélkül.
+     *
+     * @param scheduler A játék ütemezője, vagy null.
+     */
+    public void setScheduler(RoundScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+
+    /**
+     * Megszünteti a fonalat a tektonon a megadott számú kör elteltével. Ha a
+     * fonálnak van ütemezője, a megszűnés az ütemezőbe kerül, különben a life
+     * listába, amelyet a timeCheck körönként csökkent.
+     *
+     * @param t    A tekton, amelyről a fonál megszűnik.
+     * @param time A megszűnésig hátralévő körök száma.
+     */
+    protected void scheduleDeath(Tecton t, int time) {
+        if (scheduler != null) {
+            scheduler.schedule(scheduler.getRound() + time, DECAY_PHASE, () -> removeTecton(t));
+        } else {
+            timeToDie ttd = new timeToDie();
+            ttd.setTecton(t);
+            ttd.setTime(time);
+            life.add(ttd);
+        }
+    }
+
+
     /**
      * Csökkenti az életciklusban lévő objektumok idejét, majd eltávolítja azokat az
      * elemeket,
@@ -231,22 +358,52 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * Ezen kívül meghívja a deleteUnnecessaryThreads() metódust, amely további
      * feldolgozásokat végez
      * a felesleges fonalak eltávolítása érdekében.
+     * <p>
+     * Ütemezővel rendelkező fonálnál a life lista üres, a megszűnéseket az
+     * ütemező a DECAY_PHASE fázisban hajtja végre a timeCheck hívása előtt.
      */
     public void timeCheck() {
+        expireLife();
+        deleteUnnecessaryThreads();
+    }
+
+
+    /**
+     * Több fonálra végzi el a timeCheck műveletet a kör elején. Előbb minden
+     * fonál életlistája csökken (a fonalak sorrendjében), majd a felesleges
+     * részek levágása a ThreadCleanup-on keresztül történik: a levágandó
+     * tektonok meghatározása fonalanként párhuzamosan fut, a levételek a
+     * fonalak sorrendjében. Mivel egy fonál megszűnése és levágása csak a
+     * saját fonalát érinti a tektonokon, az eredmény azonos azzal, mintha a
+     * fonalakra egymás után hívtuk volna a timeCheck metódust.
+     *
+     * @param threads A fonalak, a feldolgozás sorrendjében.
+     */
+    public static void timeCheckAll(List<FungalThread> threads) {
+        for (FungalThread f : threads) {
+            f.expireLife();
+        }
+        ThreadCleanup.pruneAll(threads);
+    }
+
+
+    /**
+     * Csökkenti az életlista elemeinek idejét, és leveszi a fonalat azokról a
+     * tektonokról, amelyeknek az ideje lejárt.
+     */
+    private void expireLife() {
         for (int i = 0; i < life.size(); i++) {
             life.get(i).setTime(life.get(i).getTime() - 1);
         }
         int i = 0;
         while (i < life.size()) {
             if (life.get(i).getTime() == 0) {
-                life.get(i).getTecton().removeThread(this);
-                tectons.remove(life.get(i).getTecton());
+                removeTecton(life.get(i).getTecton());
                 life.remove(i);
             } else {
                 i += 1;
             }
         }
-        deleteUnnecessaryThreads();
     }
 
 
@@ -261,7 +418,7 @@ public abstract class FungalThread implements IFungalThreadController, IFungalTh
      * false, ha a folyamat nem sikerült.
      */
     public boolean eatInsect(Insect i) {
-        if (tectons.contains(i.getPosition())) {
+        if (i.getPosition() != null && i.getPosition().hasThread(this)) {
             if (i.getPosition().removeInsect()) {
                 return true;
             } else {
@@ -0,0 +1,301 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A HopIndex a tektonok gráfjában a legfeljebb k lépésben elérhető tektonokat
+ * tartja nyilván, hogy a hatótávolságra vonatkozó kérdéseket (például a fejlett
+ * gomba spóralövése) ne kelljen minden alkalommal a szomszédok bejárásával
+ * megválaszolni.
+ * <p>
+ * Minden kiinduló tektonhoz lusta módon, az első kérdéskor készül el egy
+ * bitsetekből álló sor: a sor h. eleme azokat a tektonokat tartalmazza, amelyek
+ * a kiinduló tektonból legalább egy, legfeljebb h lépésben elérhetők. A
+ * lépések a gráf sorait követik, vagyis egy lépés a tekton sorában szereplő
+ * szomszédra vezet.
+ * <p>
+ * Ha egy tekton sora megváltozik, csak azoknak a kiinduló tektonoknak a sora
+ * válik érvénytelenné, amelyekből a megváltozott tekton legfeljebb k-1 lépésben
+ * elérhető; a többi sor megmarad. Ezeket a kiinduló tektonokat egy fordított
+ * index adja meg (tektononként azoknak a soroknak a halmaza, amelyek a tekton
+ * sorától függnek), így az érvénytelenítés költsége az érintett sorok
+ * méretével arányos, nem az összes elkészült soréval.
+ * <p>
+ * A legnagyobb lépésszámnál mélyebb kérdésekre az index egyszeri bejárással
+ * válaszol, a lépésszámot és az elkészült sorokat nem változtatja meg.
+ * <p>
+ * Párhuzamos végrehajtás alatt az index be van fagyasztva: a kérdéseket több
+ * szál is felteheti, ezért a hiányzó sorokat egyszeri bejárás adja, és nem
+ * kerülnek a gyorsítótárba.
+ */
+public class HopIndex {
+
+    private static final int DEFAULT_MAX_HOPS = 2;
+
+    private final TectonGraph graph;
+    private int maxHops;
+    private BitSet[][] balls;
+    private BitSet[] dependents;
+    private final BitSet cached;
+    private boolean frozen;
+
+
+    /**
+     * Létrehozza a gráf indexét az alapértelmezett lépésszámmal.
+     *
+     * @param graph A gráf, amelyre az index vonatkozik.
+     */
+    HopIndex(TectonGraph graph) {
+        this.graph = graph;
+        maxHops = DEFAULT_MAX_HOPS;
+        balls = new BitSet[16][];
+        dependents = new BitSet[16];
+        cached = new BitSet();
+        frozen = false;
+    }
+
+
+    /**
+     * Visszaadja a legnagyobb lépésszámot, ameddig az index a tektonokat
+     * nyilvántartja.
+     *
+     * @return A legnagyobb lépésszám.
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+
+    /**
+     * Beállítja a legnagyobb lépésszámot. A korábban elkészült sorokat az index
+     * eldobja.
+     *
+     * @param k A legnagyobb lépésszám, legalább 1.
+     */
+    public void setMaxHops(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("A lépésszámnak legalább 1-nek kell lennie");
+        }
+        if (k != maxHops) {
+            maxHops = k;
+            clear();
+        }
+    }
+
+
+    /**
+     * Megadja, hogy a b tekton elérhető-e az a tektonból legalább egy,
+     * legfeljebb k lépésben. Ha k nagyobb, mint a legnagyobb lépésszám, a
+     * választ egyszeri bejárás adja.
+     *
+     * @param a A kiinduló tekton azonosítója.
+     * @param b A cél tekton azonosítója.
+     * @param k A lépések legnagyobb száma.
+     * @return true, ha b legfeljebb k lépésben elérhető a-ból.
+     */
+    public boolean reaches(int a, int b, int k) {
+        if (k < 1 || a < 0 || b < 0) {
+            return false;
+        }
+        if (k > maxHops) {
+            return search(a, k)[k].get(b);
+        }
+        return ball(a)[k].get(b);
+    }
+
+
+    /**
+     * Visszaadja a b tekton távolságát az a tektontól lépésekben.
+     *
+     * @param a A kiinduló tekton azonosítója.
+     * @param b A cél tekton azonosítója.
+     * @return 0, ha a két tekton azonos; a legrövidebb út lépésszáma, ha az
+     * legfeljebb a legnagyobb lépésszám; különben -1.
+     */
+    public int distance(int a, int b) {
+        return distance(a, b, maxHops);
+    }
+
+
+    /**
+     * Visszaadja a b tekton távolságát az a tektontól lépésekben, ha az
+     * legfeljebb k. Ha k nagyobb, mint a legnagyobb lépésszám, a választ
+     * egyszeri bejárás adja.
+     *
+     * @param a A kiinduló tekton azonosítója.
+     * @param b A cél tekton azonosítója.
+     * @param k A figyelembe vett legnagyobb távolság.
+     * @return 0, ha a két tekton azonos; a legrövidebb út lépésszáma, ha az
+     * legfeljebb k; különben -1.
+     */
+    public int distance(int a, int b, int k) {
+        if (a < 0 || b < 0) {
+            return -1;
+        }
+        if (a == b) {
+            return 0;
+        }
+        BitSet[] ball = k > maxHops ? search(a, k) : ball(a);
+        for (int h = 1; h <= k; h++) {
+            if (ball[h].get(b)) {
+                return h;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Visszaadja az a tektonból legalább egy, legfeljebb k lépésben elérhető
+     * tektonok azonosítóinak halmazát. Ha k nagyobb, mint a legnagyobb
+     * lépésszám, az eredményt egyszeri bejárás adja.
+     *
+     * @param a A kiinduló tekton azonosítója.
+     * @param k A lépések legnagyobb száma.
+     * @return Az elérhető tektonok azonosítóinak új halmaza.
+     */
+    public BitSet within(int a, int k) {
+        if (k < 1 || a < 0) {
+            return new BitSet();
+        }
+        if (k > maxHops) {
+            return search(a, k)[k];
+        }
+        return (BitSet) ball(a)[k].clone();
+    }
+
+
+    /**
+     * Előre elkészíti a kiinduló tekton sorát, hogy a későbbi kérdések ne
+     * járják be a gráfot.
+     *
+     * @param a A kiinduló tekton azonosítója.
+     */
+    public void prepare(int a) {
+        if (a >= 0) {
+            ball(a);
+        }
+    }
+
+
+    /**
+     * A gráf hívja, ha egy tekton sora megváltozott. Eldobja azoknak a
+     * kiinduló tektonoknak a sorát, amelyekből a tekton legfeljebb k-1
+     * lépésben elérhető, illetve a tekton saját sorát.
+     *
+     * @param id A megváltozott sorú tekton azonosítója.
+     */
+    void rowChanged(int id) {
+        if (cached.get(id)) {
+            drop(id);
+        }
+        if (id < dependents.length && dependents[id] != null) {
+            BitSet sources = (BitSet) dependents[id].clone();
+            for (int s = sources.nextSetBit(0); s >= 0; s = sources.nextSetBit(s + 1)) {
+                drop(s);
+            }
+        }
+    }
+
+
+    /**
+     * Eldobja a kiinduló tekton sorát, és kiveszi a fordított indexből.
+     */
+    private void drop(int s) {
+        BitSet used = balls[s][maxHops - 1];
+        for (int v = used.nextSetBit(0); v >= 0; v = used.nextSetBit(v + 1)) {
+            dependents[v].clear(s);
+        }
+        balls[s] = null;
+        cached.clear(s);
+    }
+
+
+    /**
+     * Eldobja az összes elkészült sort.
+     */
+    void clear() {
+        for (int s = cached.nextSetBit(0); s >= 0; s = cached.nextSetBit(s + 1)) {
+            balls[s] = null;
+        }
+        cached.clear();
+        Arrays.fill(dependents, null);
+    }
+
+
+    /**
+     * Visszaadja a kiinduló tekton sorát, szükség esetén szélességi
+     * bejárással elkészítve azt, és felveszi a fordított indexbe azokat a
+     * tektonokat, amelyek sorától a sor függ.
+     */
+    private BitSet[] ball(int a) {
+        if (frozen) {
+            BitSet[] ball = a < balls.length ? balls[a] : null;
+            return ball != null ? ball : search(a, maxHops);
+        }
+        if (a >= balls.length) {
+            balls = Arrays.copyOf(balls, Math.max(a + 1, balls.length * 2));
+        }
+        if (balls[a] != null) {
+            return balls[a];
+        }
+
+        BitSet[] ball = search(a, maxHops);
+        BitSet used = ball[maxHops - 1];
+        int last = used.length();
+        if (last > dependents.length) {
+            dependents = Arrays.copyOf(dependents, Math.max(last, dependents.length * 2));
+        }
+        for (int v = used.nextSetBit(0); v >= 0; v = used.nextSetBit(v + 1)) {
+            if (dependents[v] == null) {
+                dependents[v] = new BitSet();
+            }
+            dependents[v].set(a);
+        }
+
+        balls[a] = ball;
+        cached.set(a);
+        return ball;
+    }
+
+
+    /**
+     * A gráf hívja a párhuzamos végrehajtás kezdetén és végén.
+     *
+     * @param frozen true, ha az index nem módosulhat.
+     */
+    void setFrozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+
+    /**
+     * Szélességi bejárással elkészíti a kiinduló tekton sorát k lépésig, a
+     * gyorsítótár érintése nélkül.
+     */
+    private BitSet[] search(int a, int k) {
+        BitSet[] ball = new BitSet[k + 1];
+        ball[0] = new BitSet();
+        BitSet frontier = new BitSet();
+        frontier.set(a);
+        for (int h = 1; h <= k; h++) {
+            BitSet reached = (BitSet) ball[h - 1].clone();
+            BitSet next = new BitSet();
+            for (int v = frontier.nextSetBit(0); v >= 0; v = frontier.nextSetBit(v + 1)) {
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int n = graph.neighborAt(v, i);
+                    if (n != TectonGraph.NO_NEIGHBOR && !reached.get(n)) {
+                        reached.set(n);
+                        next.set(n);
+                    }
+                }
+            }
+            ball[h] = reached;
+            frontier = next;
+        }
+        return ball;
+    }
+
+}
@@ -10,7 +10,7 @@ import java.util.List;
  */
 public interface IFungalThreadController {
 
-    void deleteUnnecessaryThreads();
+    List<Tecton> deleteUnnecessaryThreads();
 
     boolean branchThread(Tecton t);
 
@@ -17,4 +17,8 @@ public interface IInsectController {
     void setState(InsectState iState);
 
     InsectState getState();
+
+    void attach(InsectStateColumn column, int slot);
+
+    void detach();
 }
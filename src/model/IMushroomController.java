@@ -16,6 +16,8 @@ public interface IMushroomController {
 
     boolean generateSpore(Spore sp);
 
+    boolean generateSpore(SporeType type);
+
     void setPosition(Tecton t);
 
     void setSpores(List<Spore> slist);
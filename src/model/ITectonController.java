@@ -1,6 +1,7 @@
 package model;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Az ITectonController egy interfész, amely meghatározza a különböző műveleteket,
@@ -22,14 +23,44 @@ public interface ITectonController {
 
     boolean putThread(FungalThread f);
 
+    boolean canPutThread(FungalThread f);
+
+    boolean hasThread(FungalThread f);
+
+    int threadCount();
+
+    void forEachThread(Consumer<FungalThread> action);
+
     void setSpores(List<Spore> slist);
 
     List<Spore> getSpores();
 
+    int sporeCount(FungalThread f);
+
+    Spore peekSpore();
+
+    Spore pollSpore();
+
+    List<Spore> takeSpores(FungalThread f, int k);
+
     boolean removeSpores(List<Spore> slist);
 
     void setNeighbors(List<Tecton> neighbors);
 
+    void forEachNeighbor(Consumer<Tecton> action);
+
+    boolean isWithinHops(Tecton t, int k);
+
+    int hopDistance(Tecton t, int maxHops);
+
+    boolean canBreak();
+
+    boolean isOccupied();
+
+    Tecton firstFreeNeighbor();
+
+    int freeNeighborCount();
+
     void addThread(FungalThread f);
 
     void addSpore(Spore sp);
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Az ITectonView interfész a Tecton adott nézetének lekérdezésére szolgál.
@@ -14,7 +15,25 @@ public interface ITectonView {
 
     List<FungalThread> getThreads();
 
+    boolean hasThread(FungalThread f);
+
+    boolean sharesThread(Tecton t);
+
+    int threadCount();
+
+    void forEachThread(Consumer<FungalThread> action);
+
     List<Spore> getSpores();
+
+    int sporeCount();
+
+    int sporeCount(FungalThread f);
+
+    int sporeCount(FungalThread f, SporeType type);
+
+    Spore peekSpore();
     
     List<Tecton> getNeighbors();
+
+    void forEachNeighbor(Consumer<Tecton> action);
 }
@@ -1,7 +1,5 @@
 package model;
 
-import java.util.List;
-
 /**
  * Ez az osztály egy rovart reprezentál, amely különböző műveleteket tud
  * végrehajtani egy "Tecton" típusú pozíción és gombafonalakon.
@@ -12,6 +10,8 @@ public class Insect implements IInsectController, IInsectView {
 
     private Tecton position;
     private InsectState state;
+    private InsectStateColumn column;
+    private int slot;
 
 
     /**
@@ -51,7 +51,11 @@ public class Insect implements IInsectController, IInsectView {
      * @param s Az új állapot, amely a SporeEffect enum értékei közül választandó.
      */
     public void setState(InsectState s) {
-        state = s;
+        if (column != null) {
+            column.setState(slot, s);
+        } else {
+            state = s;
+        }
     }
 
 
@@ -61,7 +65,32 @@ public class Insect implements IInsectController, IInsectView {
      * @return a SporeEffect típusú aktuális állapot.
      */
     public InsectState getState() {
-        return state;
+        return column != null ? column.getState(slot) : state;
+    }
+
+
+    /**
+     * A rovar állapotát ezentúl az oszlop megadott helye tárolja. Az oszlop
+     * helyét a hívónak kell a rovar aktuális állapotával feltöltenie.
+     *
+     * @param column Az állapotokat tároló oszlop.
+     * @param slot   A rovar helyének sorszáma az oszlopban.
+     */
+    public void attach(InsectStateColumn column, int slot) {
+        this.column = column;
+        this.slot = slot;
+    }
+
+
+    /**
+     * Leválasztja a rovart az állapotoszlopról; az oszlopban tárolt állapot
+     * visszakerül a rovarba.
+     */
+    public void detach() {
+        if (column != null) {
+            state = column.getState(slot);
+            column = null;
+        }
     }
 
 
@@ -75,10 +104,11 @@ public class Insect implements IInsectController, IInsectView {
 
         if (t.putInsect(this, position)) {
 
-            List<Spore> tSpores = t.getSpores();
+            // a tektonra legrégebben került spóra hatása érvényesül
+            Spore first = t.peekSpore();
 
-            if (!tSpores.isEmpty()) {
-                tSpores.get(0).applyEffect(this);
+            if (first != null) {
+                first.applyEffect(this);
             }
             return true;
         } else {
@@ -102,23 +132,15 @@ public class Insect implements IInsectController, IInsectView {
         //leellenőrizzük, hogy a kapott tekton az szomszédos-e a position tektonnal
 
         if (t.isNeighbor(position)) {
-            //létrehozunk két listát, az egyikben a t, a másikban a position tektonon levő fonalakat tároljuk
-            List<FungalThread> list1;
-            List<FungalThread> list2;
-
-            list1 = t.getThreads();
-            list2 = position.getThreads();
-            boolean isCut = false;
-
-            //megnézzük, hogy a list2-ben mely elemek szerepelnek a list1-ből
-            for (int i = 0; i < list1.size(); i++) {
-
-                //ha valamely elem a list1-ből szerepel a list2-ben is
-                if (list2.contains(list1.get(i))) {
-                    //kivesszük a fonál tekton listájából a t tektont
-                    isCut = true;
-                    list1.get(i).sendToDie(t);
-                }
+            //ha van közös fonal, akkor a t fonalai közül a position tektonon is szereplőket elvágjuk
+            boolean isCut = t.sharesThread(position);
+            if (isCut) {
+                t.forEachThread(f -> {
+                    if (position.hasThread(f)) {
+                        //kivesszük a fonál tekton listájából a t tektont
+                        f.sendToDie(t);
+                    }
+                });
             }
             //ha sikerült fonalat vágni true értékkel tér vissza
             if(isCut){
@@ -142,21 +164,14 @@ public class Insect implements IInsectController, IInsectView {
      * szabad szomszédos pozícióra elhelyezni. Ha nincs elérhető szabad hely, null értéket ad vissza.
      */
     public Insect divide() {
-        Insect i = null;
-        List<Tecton> tlist = position.getNeighbors();
-        boolean attached = false;
-        int j = 0;
-        while (j < tlist.size() && attached == false) {
-            if(tlist.get(j)!=null){
-                if (tlist.get(j).getInsect() == null) {
-                    i = new Insect();
-                    i.setPosition(tlist.get(j));
-                    tlist.get(j).setInsect(i);
-                    attached = true;
-                }
-                j = j + 1;
-            }
+        // a szomszédok közül az első, amelyen nincs rovar
+        Tecton free = position.firstFreeNeighbor();
+        if (free == null) {
+            return null;
         }
+        Insect i = new Insect();
+        i.setPosition(free);
+        free.setInsect(i);
         return i;
     }
 
@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * Az InsectStateColumn egy rovarállapotokat tároló oszlop, amelyben minden
+ * rovar állapota egy helyen (slot) van. Ha egy rovar egy oszlophoz van
+ * kapcsolva, az állapotát az oszlop tárolja, és a spórák hatása is ide íródik.
+ */
+public interface InsectStateColumn {
+
+    /**
+     * @param slot A rovar helyének sorszáma.
+     * @return A rovar állapota.
+     */
+    InsectState getState(int slot);
+
+    /**
+     * @param slot  A rovar helyének sorszáma.
+     * @param state A rovar új állapota.
+     */
+    void setState(int slot, InsectState state);
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.BitSet;
+
+/**
+ * Az InvariantChecker a modell belső összefüggéseit ellenőrzi minden művelet
+ * után, de csak azokon a tektonokon és fonalakon, amelyeket a művelet
+ * érintett, így a költsége a változás méretével arányos, nem a játéktérével.
+ * <p>
+ * A gráf eseménybuszára iratkozik fel: az események forrásait és tárgyait
+ * (tektonokat és fonalakat) egy-egy bitsetben gyűjti, majd a köteg végén az
+ * érintett elemekre ellenőrzi, hogy
+ * <ul>
+ * <li>a tekton és a fonál nyilvántartása egymással egyezik;</li>
+ * <li>a még ki nem tört tekton sorában szereplő szomszédok sorában a tekton
+ * is szerepel;</li>
+ * <li>a tektonon álló rovar pozíciója a tekton, és a foglaltsági bit a rovar
+ * jelenlétét mutatja;</li>
+ * <li>a tekton pontosan akkor van a törhető tektonok halmazában, ha még nem
+ * tört ketté, legalább négy oldala van, és nincs rajta gombatest.</li>
+ * </ul>
+ * Hiba esetén IllegalStateException-t dob, amely a hibát okozó művelet
+ * hívójához jut el.
+ */
+public class InvariantChecker implements ModelListener {
+
+    private final TectonGraph graph;
+    private final BitSet touchedTectons;
+    private final BitSet touchedThreads;
+    private long checks;
+
+
+    /**
+     * Létrehozza a gráf ellenőrzőjét. Az ellenőrző a feliratkozással kezd
+     * működni.
+     *
+     * @param graph Az ellenőrzött gráf.
+     */
+    public InvariantChecker(TectonGraph graph) {
+        this.graph = graph;
+        touchedTectons = new BitSet();
+        touchedThreads = new BitSet();
+        checks = 0;
+    }
+
+
+    /**
+     * Visszaadja az eddig elvégzett ellenőrzések (kötegek) számát.
+     *
+     * @return Az ellenőrzések száma.
+     */
+    public long getChecks() {
+        return checks;
+    }
+
+
+    @Override
+    public void modelChanged(ModelEventType type, Tecton source, Object target) {
+        touch(source);
+        if (target instanceof Tecton) {
+            touch((Tecton) target);
+        } else if (target instanceof FungalThread) {
+            FungalThread f = (FungalThread) target;
+            if (f.getGraph() == graph) {
+                touchedThreads.set(f.getId());
+            }
+        }
+    }
+
+
+    @Override
+    public void batchEnded() {
+        try {
+            for (int id = touchedTectons.nextSetBit(0); id >= 0; id = touchedTectons.nextSetBit(id + 1)) {
+                checkTecton(graph.getTecton(id));
+            }
+        } finally {
+            touchedTectons.clear();
+            touchedThreads.clear();
+        }
+        checks++;
+    }
+
+
+    private void touch(Tecton t) {
+        if (t != null && t.getGraphIfBound() == graph) {
+            touchedTectons.set(t.getId());
+        }
+    }
+
+
+    private void checkTecton(Tecton t) {
+        int id = t.getId();
+
+        // a tekton és az érintett fonalak kölcsönös nyilvántartása
+        for (int tid = touchedThreads.nextSetBit(0); tid >= 0; tid = touchedThreads.nextSetBit(tid + 1)) {
+            FungalThread f = graph.getThread(tid);
+            if (t.hasThread(f) != f.hasTecton(t)) {
+                fail(t, "a tekton és a(z) " + tid + ". fonál nyilvántartása eltér");
+            }
+        }
+        t.forEachThread(f -> {
+            if (!f.hasTecton(t)) {
+                fail(t, "a(z) " + f.getId() + ". fonál nem tud a tektonról");
+            }
+        });
+
+        // a kettétört tekton sora már nem része a játéktérnek
+        boolean retired = graph.isRetired(id);
+        if (!retired) {
+            int degree = graph.degree(id);
+            for (int i = 0; i < degree; i++) {
+                int n = graph.neighborAt(id, i);
+                if (n != TectonGraph.NO_NEIGHBOR && !graph.isNeighbor(n, id)) {
+                    fail(t, "a(z) " + n + ". szomszéd sorában nem szerepel");
+                }
+            }
+        }
+
+        Insect ins = t.getInsect();
+        if (ins != null && ins.getPosition() != t) {
+            fail(t, "a rajta álló rovar pozíciója eltér");
+        }
+        if (graph.isOccupied(id) != (ins != null)) {
+            fail(t, "a foglaltsági bit eltér a rovar jelenlététől");
+        }
+
+        boolean can = !retired && graph.degree(id) >= TectonGraph.MIN_BREAK_EDGES && t.getMushroom() == null;
+        if (graph.isBreakable(id) != can) {
+            fail(t, "a törhetőségi halmaz eltér a szabálytól");
+        }
+    }
+
+
+    private static void fail(Tecton t, String message) {
+        throw new IllegalStateException("Invariáns sérült a(z) " + t.getId() + ". tektonon: " + message);
+    }
+
+}
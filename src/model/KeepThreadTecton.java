@@ -11,17 +11,14 @@ import java.util.List;
 public class KeepThreadTecton extends Tecton {
 
     private Mushroom mushroom;
-    private List<FungalThread> threads;
 
 
     /**
-     * Konstruktor, amely inicializálja a threads mezőt
-     * és a mushroom értékét null-ra állítja.
+     * Konstruktor, amely a mushroom értékét null-ra állítja.
      */
     public KeepThreadTecton() {
         super();
         mushroom = null;
-        threads = new ArrayList<>();
     }
 
 
@@ -32,6 +29,7 @@ public class KeepThreadTecton extends Tecton {
      */
     public boolean setMushroom(Mushroom mushroom) {
         this.mushroom = mushroom;
+        mushroomChanged();
         return true;
     }
 
@@ -49,26 +47,6 @@ public class KeepThreadTecton extends Tecton {
     }
 
 
-    /**
-     * Beállítja a gombafonalak listáját a megadott listára.
-     *
-     * @param threads A gombafonalak listája.
-     */
-    public void setThreads(List<FungalThread> threads) {
-        this.threads = threads;
-    }
-
-
-    /**
-     * Visszaadja azokat a gombafonalakat, amelyek a tektonon találhatók.
-     *
-     * @return A tektonon lévő gombafonalakat tartalmazó lista.
-     */
-    public List<FungalThread> getThreads() {
-        return threads;
-    }
-
-
     /**
      * Lerak egy gombaobjektumot a tektonon, ha még nincs ott másik gomba.
      * Csak akkor sikeres, ha a megadott helyen nincs már gomba.
@@ -80,6 +58,7 @@ public class KeepThreadTecton extends Tecton {
     public boolean putMushroom(Mushroom m) {
         if (mushroom == null) {
             mushroom = m;
+            mushroomChanged();
             return true;
         }
         return false;
@@ -94,13 +73,9 @@ public class KeepThreadTecton extends Tecton {
      * @return true, ha a fonalat sikeresen hozzáadta a tektonhoz, különben false.
      */
     public boolean putThread(FungalThread f) {
-        for (Tecton tecton : neighbors) {
-            if(tecton != null){
-                if (tecton.getThreads().contains(f)) {
-                    threads.add(f);
-                    return true;
-                }
-            }
+        if (hasNeighborWithThread(f)) {
+            linkThread(f);
+            return true;
         }
         return false;
     }
@@ -112,6 +87,7 @@ public class KeepThreadTecton extends Tecton {
     public boolean removeMushroom() {
         if (mushroom != null) {
             mushroom = null;
+            mushroomChanged();
 
             return true;
         } else {
@@ -121,17 +97,6 @@ public class KeepThreadTecton extends Tecton {
     }
 
 
-    /**
-     * A kapott fonalat eltávolítja a listájából.
-     *
-     * @param f A törölni kívánt fonal.
-     */
-    public boolean removeThread(FungalThread f) {
-        threads.remove(f);
-        return true;
-    }
-
-
     /**
      * Egy megadott tekton kettétörése során létrehozza az új tektonokat és
      * azok szomszédsági, valamint fonalbeli kapcsolatait átrendezi.
@@ -142,76 +107,21 @@ public class KeepThreadTecton extends Tecton {
      * @return A kettétört tektonból létrejött új tektonok listája.
      */
     public List<Tecton> breakTecton() {
-
-        List<Tecton> ret = new ArrayList<>();
-
-        if(mushroom == null){
-
-        // létrejön a két új tekton
-        Tecton t6 = new KeepThreadTecton();
-        Tecton t7 = new KeepThreadTecton();
-
-        ret.add(t6);
-        ret.add(t7);
-
-        // ez lesz a töréspont a tektonon
-        int centre = neighbors.size() / 2;
-
-        // létrehozok egy listát, amelyben a t6 tekton szomszédai lesznek
-        List<Tecton> neighborList = new ArrayList<>();
-        for (int i = 0; i < centre; i++) {
-            neighborList.add(neighbors.get(i));
-        }
-        neighborList.add(t7);
-
-        // beállítom a t6 szomszédait
-        t6.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // létrehozok egy listát, amelyben a t7 szomszédai lesznek
-        neighborList.add(t6);
-        for (int i = centre; i < neighbors.size(); i++) {
-            neighborList.add(neighbors.get(i));
-        }
-
-        // beállítom a t7 szomszédait
-        t7.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // a jelenlegi tekton szomszédait beállítom, hozzáadva szomszédsági listájukhoz
-        // a megfelelő létrejött tektont
-        // valamint kivéve a kettétötött tektont
-        for (int i = 0; i < centre; i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t6);
-            }
-        }
-
-        for (int i = centre; i < neighbors.size(); i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t7);
-            }
-        }
-
-        if(i!=null){
-            // a tektonon levő bogarat ráhelyezem a t6-ra
-            t6.setInsect(i);
-            // beállítom a bogár pozícióját
-            i.setPosition(t6);
+        // gombatestet tartó tekton nem törhet ketté
+        if (mushroom != null) {
+            return new ArrayList<>();
         }
+        return split();
+    }
 
-        // kitörlöm a tektont a fonálról
-        for (int i = 0; i < threads.size(); i++) {
-            threads.get(i).removeTecton(this);
-        }
 
-        // ha keletkezett olyan fonálrész, amely a kettétörés során már nem kapcsolódik
-        // gombatesthez ezt eltávolítom
-        for (int i = 0; i < threads.size(); i++) {
-            threads.get(i).deleteUnnecessaryThreads();
-        }
-    }
-        return ret;
+    /**
+     * Létrehoz egy új KeepThreadTecton-t, a kettétörés egyik darabját.
+     *
+     * @return Az új tekton.
+     */
+    protected Tecton createPiece() {
+        return new KeepThreadTecton();
     }
 
 
@@ -228,10 +138,10 @@ public class KeepThreadTecton extends Tecton {
         if (mushroom == null) {
 
             mushroom = m;
+            mushroomChanged();
             mushroom.setPosition(this);
             mushroom.setThread(f);
 
-            threads.add(f);
             f.addTecton(this);
 
             return true;
@@ -279,7 +189,7 @@ public class KeepThreadTecton extends Tecton {
      * @param f az a FungalThread objektum, amelyet hozzá kell adni
      */
     public void addThread(FungalThread f) {
-        threads.add(f);
+        linkThread(f);
     }
 
 }
@@ -18,10 +18,7 @@ public class LongLifeThread extends FungalThread {
      * @return Igaz értéket ad vissza, ha a művelet sikeres volt.
      */
     public boolean sendToDie(Tecton t) {
-        timeToDie ttd = new timeToDie();
-        ttd.setTecton(t);
-        ttd.setTime(2);
-        life.add(ttd);
+        scheduleDeath(t, 2);
         return true;
     }
 }
@@ -0,0 +1,204 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A ModelEventBus a modell változásait jelzi a feliratkozott figyelőknek, hogy
+ * azoknak (gyorsítótárak, indexek, a megjelenítés) ne kelljen a teljes
+ * játékteret újra végignézniük.
+ * <p>
+ * Az események egy körkörös pufferbe kerülnek, amely az esemény fajtáját,
+ * forrását és tárgyát három párhuzamos tömbben tárolja, így egy esemény
+ * jelzése nem hoz létre új objektumot. Ha nincs figyelő, a jelzés nem tesz
+ * semmit.
+ * <p>
+ * Egy összetett művelet (például egy tekton kettétörése) eseményei kötegbe
+ * foghatók: a beginBatch és endBatch között keletkezett eseményeket a busz
+ * csak a legkülső köteg végén, egyben adja át. Kötegen kívül minden esemény
+ * azonnal továbbításra kerül. Az események mindig a keletkezésük sorrendjében
+ * érkeznek, a továbbítás közben keletkezők is a sor végére kerülnek.
+ * <p>
+ * Párhuzamos végrehajtás alatt (lásd TectonGraph.beginParallel) a busz nem
+ * módosul: az események a jelző lépés DeferredEffects gyűjtőjébe kerülnek,
+ * és a lépések visszajátszásakor, rögzített sorrendben érkeznek a buszra.
+ */
+public class ModelEventBus {
+
+    private final List<ModelListener> listeners;
+
+    private ModelEventType[] types;
+    private Tecton[] sources;
+    private Object[] targets;
+    private int head;
+    private int size;
+
+    private int depth;
+    private boolean delivering;
+    private boolean parallel;
+
+
+    /**
+     * Létrehoz egy figyelő nélküli buszt.
+     */
+    public ModelEventBus() {
+        listeners = new ArrayList<>();
+        types = new ModelEventType[64];
+        sources = new Tecton[64];
+        targets = new Object[64];
+        head = 0;
+        size = 0;
+        depth = 0;
+        delivering = false;
+        parallel = false;
+    }
+
+
+    /**
+     * Feliratkoztat egy figyelőt.
+     *
+     * @param l A figyelő.
+     */
+    public void addListener(ModelListener l) {
+        listeners.add(l);
+    }
+
+
+    /**
+     * Leiratkoztat egy figyelőt.
+     *
+     * @param l A figyelő.
+     */
+    public void removeListener(ModelListener l) {
+        listeners.remove(l);
+    }
+
+
+    /**
+     * Megadja, hogy van-e feliratkozott figyelő.
+     *
+     * @return true, ha van figyelő.
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+
+    /**
+     * Megnyit egy köteget. A kötegek egymásba ágyazhatók.
+     */
+    public void beginBatch() {
+        if (parallel) {
+            return;
+        }
+        depth++;
+    }
+
+
+    /**
+     * Lezár egy köteget. A legkülső köteg lezárásakor a busz átadja a
+     * várakozó eseményeket.
+     */
+    public void endBatch() {
+        if (parallel) {
+            return;
+        }
+        if (depth > 0 && --depth == 0) {
+            flush();
+        }
+    }
+
+
+    /**
+     * Jelez egy eseményt.
+     *
+     * @param type   Az esemény fajtája.
+     * @param source A tekton, amelyen a változás történt.
+     * @param target A változás tárgya.
+     */
+    void emit(ModelEventType type, Tecton source, Object target) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (parallel) {
+            DeferredEffects.current().defer(() -> emit(type, source, target));
+            return;
+        }
+        if (size == types.length) {
+            grow();
+        }
+        int idx = (head + size) & (types.length - 1);
+        types[idx] = type;
+        sources[idx] = source;
+        targets[idx] = target;
+        size++;
+        if (depth == 0) {
+            flush();
+        }
+    }
+
+
+    /**
+     * Átadja a várakozó eseményeket a figyelőknek, a keletkezésük
+     * sorrendjében, majd jelzi nekik a köteg végét.
+     */
+    public void flush() {
+        if (delivering || parallel) {
+            return;
+        }
+        if (size == 0) {
+            return;
+        }
+        delivering = true;
+        try {
+            while (size > 0) {
+                ModelEventType type = types[head];
+                Tecton source = sources[head];
+                Object target = targets[head];
+                types[head] = null;
+                sources[head] = null;
+                targets[head] = null;
+                head = (head + 1) & (types.length - 1);
+                size--;
+                for (int k = 0; k < listeners.size(); k++) {
+                    listeners.get(k).modelChanged(type, source, target);
+                }
+            }
+            for (int k = 0; k < listeners.size(); k++) {
+                listeners.get(k).batchEnded();
+            }
+        } finally {
+            delivering = false;
+        }
+    }
+
+
+    /**
+     * A gráf hívja a párhuzamos végrehajtás kezdetén és végén.
+     *
+     * @param parallel true, ha az események a lépések gyűjtőjébe kerülnek.
+     */
+    void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+
+    private void grow() {
+        int cap = types.length * 2;
+        ModelEventType[] newTypes = new ModelEventType[cap];
+        Tecton[] newSources = new Tecton[cap];
+        Object[] newTargets = new Object[cap];
+        for (int k = 0; k < size; k++) {
+            int idx = (head + k) & (types.length - 1);
+            newTypes[k] = types[idx];
+            newSources[k] = sources[idx];
+            newTargets[k] = targets[idx];
+        }
+        types = newTypes;
+        sources = newSources;
+        targets = newTargets;
+        head = 0;
+    }
+
+}
@@ -0,0 +1,55 @@
+package model;
+
+/**
+ * A modell változásainak fajtái, amelyeket a ModelEventBus jelez. Minden
+ * eseménynek van forrása (az a tekton, amelyen a változás történt) és
+ * tárgya (a fonál, spóra, rovar, gomba vagy új tekton, amelyre a változás
+ * vonatkozik).
+ */
+public enum ModelEventType {
+    /**
+     * Fonál került a tektonra. Tárgya a fonál.
+     */
+    THREAD_ADDED,
+    /**
+     * Fonál került le a tektonról. Tárgya a fonál.
+     */
+    THREAD_REMOVED,
+    /**
+     * Spóra került a tektonra. Tárgya a spóra.
+     */
+    SPORE_ADDED,
+    /**
+     * Spóra került le a tektonról. Tárgya a spóra.
+     */
+    SPORE_REMOVED,
+    /**
+     * Rovar került a tektonra (lehelyezéssel vagy osztódással). Tárgya a rovar.
+     */
+    INSECT_PLACED,
+    /**
+     * Rovar lépett a tektonra. Tárgya a rovar.
+     */
+    INSECT_MOVED,
+    /**
+     * Rovar került le a tektonról. Tárgya a rovar.
+     */
+    INSECT_REMOVED,
+    /**
+     * Gombatest került a tektonra. Tárgya a gomba.
+     */
+    MUSHROOM_GROWN,
+    /**
+     * Gombatest került le a tektonról. Tárgya a gomba.
+     */
+    MUSHROOM_DIED,
+    /**
+     * A tekton kettétört. Tárgya az egyik darab; törésenként két esemény
+     * keletkezik.
+     */
+    TECTON_SPLIT,
+    /**
+     * A tekton felszívta a rajta lévő fonalakat. Tárgya null.
+     */
+    TECTON_ABSORBED
+}
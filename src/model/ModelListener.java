@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * A ModelListener interfészt megvalósító objektumok a ModelEventBus-on
+ * keresztül értesülnek a modell változásairól.
+ */
+public interface ModelListener {
+
+    /**
+     * A modell egy változását jelzi. Az események a keletkezésük sorrendjében
+     * érkeznek.
+     *
+     * @param type   A változás fajtája.
+     * @param source A tekton, amelyen a változás történt.
+     * @param target A változás tárgya, a fajtától függően.
+     */
+    void modelChanged(ModelEventType type, Tecton source, Object target);
+
+    /**
+     * Jelzi, hogy a busz egy köteg (vagy kötegen kívül egyetlen esemény)
+     * összes eseményét átadta.
+     */
+    default void batchEnded() {
+    }
+}
@@ -193,14 +193,35 @@ public class Mushroom implements IMushroomController, IMushroomView{
 
 
     /**
-     * Hozzáad egy új spórát a gomba spóra listájához.
+     * Hozzáad egy új spórát a gomba spóra listájához. A listába nem a kapott
+     * objektum, hanem a gomba fonalának azonos fajtájú, közös spórája kerül;
+     * fonal nélküli gombánál egy fonal nélküli, azonos fajtájú spóra. A kapott
+     * spóra nem változik, mert az lehet egy fonal közös példánya is.
      *
      * @param sp A hozzáadandó spóra objektum.
      * @return true, ha a spóra sikeresen hozzá lett adva.
      */
     public boolean generateSpore(Spore sp) {
-        sp.setThread(this.thread);
-        spores.add(sp);
+        if (thread == null && sp.getThread() == null) {
+            spores.add(sp);
+            return true;
+        }
+        return generateSpore(sp.getType());
+    }
+
+
+    /**
+     * Hozzáadja a gomba fonalának adott fajtájú spóráját a gomba spóra listájához.
+     *
+     * @param type A hozzáadandó spóra fajtája.
+     * @return true, ha a spóra sikeresen hozzá lett adva.
+     */
+    public boolean generateSpore(SporeType type) {
+        if (thread == null) {
+            spores.add(type.newSpore());
+        } else {
+            spores.add(thread.getSpore(type));
+        }
         return true;
     }
 
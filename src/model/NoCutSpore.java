@@ -25,4 +25,14 @@ public class NoCutSpore extends Spore {
         i.setState(InsectState.NOCUT);
     }
 
+
+    /**
+     * Visszaadja a spóra fajtáját.
+     *
+     * @return SporeType.NOCUT
+     */
+    public SporeType getType() {
+        return SporeType.NOCUT;
+    }
+
 }
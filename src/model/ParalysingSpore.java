@@ -25,4 +25,14 @@ public class ParalysingSpore extends Spore {
         i.setState(InsectState.PARALYZED);
     }
 
+
+    /**
+     * Visszaadja a spóra fajtáját.
+     *
+     * @return SporeType.PARALYSING
+     */
+    public SporeType getType() {
+        return SporeType.PARALYSING;
+    }
+
 }
@@ -0,0 +1,180 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A RoundScheduler a játék időhöz kötött szabályainak eseményeit tartja
+ * nyilván körök szerint, hogy a kör léptetésekor ne kelljen minden objektumot
+ * végignézni, csak azokat az eseményeket, amelyek az adott körben esedékesek.
+ * <p>
+ * Az események egy körkörös időkerék (hashed timing wheel) rekeszeibe kerülnek:
+ * a k. körre ütemezett esemény a (k mod méret) rekeszbe. Egy rekeszben a
+ * kerék egy teljes fordulatánál későbbi események is lehetnek, ezek a rekesz
+ * feldolgozásakor a helyükön maradnak.
+ * <p>
+ * Egy körön belül az események fázisokra oszlanak; a hívó fázisonként kéri a
+ * feldolgozást, így a szabályok sorrendje a körön belül rögzített. Egy fázison
+ * belül az események ütemezésük sorrendjében futnak le.
+ * <p>
+ * Párhuzamos végrehajtás alatt az ütemezés a hívó lépés DeferredEffects
+ * gyűjtőjébe kerül, így a rekeszek sorrendjét a lépések visszajátszásának
+ * sorrendje adja, nem a szálak ütemezése.
+ */
+public class RoundScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final int phases;
+    private final Entry[][] heads;
+    private final Entry[][] tails;
+    private int round;
+    private int pending;
+    private boolean parallel;
+
+
+    /**
+     * Egy ütemezett esemény.
+     */
+    private static class Entry {
+        private final int round;
+        private final Runnable event;
+        private Entry next;
+
+        Entry(int round, Runnable event) {
+            this.round = round;
+            this.event = event;
+            next = null;
+        }
+    }
+
+
+    /**
+     * Létrehoz egy ütemezőt a megadott számú fázissal.
+     *
+     * @param phases A körönkénti fázisok száma.
+     */
+    public RoundScheduler(int phases) {
+        this.phases = phases;
+        heads = new Entry[WHEEL_SIZE][phases];
+        tails = new Entry[WHEEL_SIZE][phases];
+        round = 0;
+        pending = 0;
+        parallel = false;
+    }
+
+
+    /**
+     * Visszaadja az aktuális kört.
+     *
+     * @return Az aktuális kör.
+     */
+    public int getRound() {
+        return round;
+    }
+
+
+    /**
+     * Visszaadja a még le nem futott események számát.
+     *
+     * @return A függő események száma.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+
+    /**
+     * Beállítja az aktuális kört. Ezután a runDue hívások ennek a körnek az
+     * eseményeit futtatják.
+     *
+     * @param round Az új kör.
+     */
+    public void advance(int round) {
+        this.round = round;
+    }
+
+
+    /**
+     * Ütemez egy eseményt a megadott kör megadott fázisára. A már elmúlt körre
+     * ütemezett esemény a következő körben fut le.
+     *
+     * @param at    A kör, amelyben az eseménynek le kell futnia.
+     * @param phase A fázis, amelyben az eseménynek le kell futnia.
+     * @param event A lefuttatandó esemény.
+     */
+    public void schedule(int at, int phase, Runnable event) {
+        if (phase < 0 || phase >= phases) {
+            throw new IllegalArgumentException("Nincs ilyen fázis: " + phase);
+        }
+        if (parallel) {
+            int when = at;
+            DeferredEffects.current().defer(() -> schedule(when, phase, event));
+            return;
+        }
+        if (at <= round) {
+            at = round + 1;
+        }
+        Entry e = new Entry(at, event);
+        int slot = at & (WHEEL_SIZE - 1);
+        if (tails[slot][phase] == null) {
+            heads[slot][phase] = e;
+        } else {
+            tails[slot][phase].next = e;
+        }
+        tails[slot][phase] = e;
+        pending++;
+    }
+
+
+    /**
+     * Megkezdi vagy befejezi a párhuzamos végrehajtást. A játék szálán kell
+     * hívni.
+     *
+     * @param parallel true, ha az ütemezések a lépések gyűjtőjébe kerülnek.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+
+    /**
+     * Lefuttatja az aktuális kör adott fázisára ütemezett eseményeket. Az
+     * események futás közben újabb eseményeket ütemezhetnek; ezek a már
+     * elmúlt körökre vonatkozó szabály szerint legkorábban a következő körben
+     * futnak le.
+     *
+     * @param phase A feldolgozandó fázis.
+     */
+    public void runDue(int phase) {
+        int slot = round & (WHEEL_SIZE - 1);
+
+        // kiveszem a rekeszből az esedékes eseményeket, a későbbiek maradnak
+        List<Runnable> due = new ArrayList<>();
+        Entry prev = null;
+        Entry e = heads[slot][phase];
+        while (e != null) {
+            Entry next = e.next;
+            if (e.round == round) {
+                due.add(e.event);
+                if (prev == null) {
+                    heads[slot][phase] = next;
+                } else {
+                    prev.next = next;
+                }
+                if (tails[slot][phase] == e) {
+                    tails[slot][phase] = prev;
+                }
+                pending--;
+            } else {
+                prev = e;
+            }
+            e = next;
+        }
+
+        for (Runnable event : due) {
+            event.run();
+        }
+    }
+
+}
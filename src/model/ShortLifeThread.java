@@ -23,10 +23,7 @@ public class ShortLifeThread extends FungalThread {
      * @return Igaz értéket ad vissza, ha a művelet sikeresen végrehajtásra került.
      */
     public boolean sendToDie(Tecton t) {
-        timeToDie ttd = new timeToDie();
-        ttd.setTecton(t);
-        ttd.setTime(1);
-        life.add(ttd);
+        scheduleDeath(t, 1);
         return true;
     }
 
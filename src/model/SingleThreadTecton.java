@@ -10,7 +10,6 @@ import java.util.List;
 public class SingleThreadTecton extends Tecton {
 
     private Mushroom mushroom;
-    private FungalThread thread;
 
 
     /**
@@ -20,36 +19,16 @@ public class SingleThreadTecton extends Tecton {
     public SingleThreadTecton() {
         super();
         mushroom = null;
-        thread = null;
     }
 
 
     /**
-     * Beállítja a tektonon található gombafonalat.
+     * Beállítja a tektonon található gombafonalat: csak a lista első fonala marad a tektonon.
      *
      * @param list A beállítani kívánt gombafonalak listája.
      */
     public void setThreads(List<FungalThread> list) {
-        thread = list.get(0);
-    }
-
-
-    /**
-     * Visszaadja azokat a gombafonalakat, amelyek rajta vannak a tektonon.
-     *
-     * @return A rajta lévő gombafonalak listája. Ha nincs rajta gombafonal, akkor null-t ad vissza.
-     */
-    public List<FungalThread> getThreads() {
-
-        // berakom egy listába a fonalat
-        ArrayList<FungalThread> list = new ArrayList<>();
-        if (thread == null) {
-            return list;
-        } else {
-            list.add(thread);
-        }
-
-        return list;
+        super.setThreads(list.subList(0, 1));
     }
 
 
@@ -60,6 +39,7 @@ public class SingleThreadTecton extends Tecton {
      */
     public boolean setMushroom(Mushroom mushroom) {
         this.mushroom = mushroom;
+        mushroomChanged();
         return true;
     }
 
@@ -83,12 +63,25 @@ public class SingleThreadTecton extends Tecton {
     public boolean putMushroom(Mushroom m) {
         if (mushroom == null) {
             mushroom = m;
+            mushroomChanged();
             return true;
         }
         return false;
     }
 
 
+    /**
+     * Csak akkor lehet fonalat elágaztatni rá, ha még egy fonal sincs rajta.
+     *
+     * @param f A fonál.
+     * @return true, ha a tekton üres, és valamelyik szomszédján rajta van a fonál.
+     */
+    @Override
+    public boolean canPutThread(FungalThread f) {
+        return threadCount() == 0 && hasNeighborWithThread(f);
+    }
+
+
     /**
      * Ha nincs egy fonal se rajta és van szomszédos tekton, akkor lehet fonalat helyezni rá.
      * Ellenőrzi, hogy a szomszédos tektonokon az adott fonal már szerepel-e,
@@ -99,21 +92,9 @@ public class SingleThreadTecton extends Tecton {
      * false, ha a feltételek nem teljesültek (pl.: már van rajta fonal, vagy "f" nem található a szomszédok között).
      */
     public boolean putThread(FungalThread f) {
-        if (thread == null && !neighbors.isEmpty()) {
-            for (Tecton tecton : neighbors) {
-                if(tecton != null){
-                    List<FungalThread> threads = tecton.getThreads();
-                    if (threads != null) { // Csak akkor iterálj, ha nem null
-                        for (FungalThread fungals : threads) {
-                            if (fungals != null && fungals.equals(f)) {
-                                thread = f;
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-            return false;
+        if (canPutThread(f)) {
+            linkThread(f);
+            return true;
         } else {
             return false;
         }
@@ -128,6 +109,7 @@ public class SingleThreadTecton extends Tecton {
     public boolean removeMushroom() {
         if (mushroom != null) {
             mushroom = null;
+            mushroomChanged();
 
             return true;
         } else {
@@ -137,18 +119,6 @@ public class SingleThreadTecton extends Tecton {
     }
 
 
-    /**
-     * Törli a megadott gombafonalat, ha megegyezik a tárolt gombafonallal.
-     *
-     * @param f A törölni kívánt FungalThread objektum.
-     * @return Igaz értéket ad vissza, ha a törlés sikeres.
-     */
-    public boolean removeThread(FungalThread f) {
-        thread = null;
-        return true;
-    }
-
-
     /**
      * Ez a metódus kettétöri a jelenlegi tektont, és létrehoz két új Tecton objektumot.
      * Az újonnan létrehozott Tecton objektumok megfelelő kapcsolódásait és szomszédsági listáikat
@@ -159,74 +129,21 @@ public class SingleThreadTecton extends Tecton {
      * @return A két új, kettétörés során létrehozott Tecton objektumot tartalmazó lista.
      */
     public List<Tecton> breakTecton() {
-        List<Tecton> ret = new ArrayList<>();
-        if(mushroom == null){
-
-        // létrejön a két új tekton
-        Tecton t6 = new SingleThreadTecton();
-        Tecton t7 = new SingleThreadTecton();
-
-        ret.add(t6);
-        ret.add(t7);
-
-        // ez lesz a töréspont a tektonon
-        int centre = neighbors.size() / 2;
-
-        // létrehozok egy listát, amelyben a t6 tekton szomszédai lesznek
-        List<Tecton> neighborList = new ArrayList<>();
-        for (int i = 0; i < centre; i++) {
-            neighborList.add(neighbors.get(i));
-        }
-        neighborList.add(t7);
-
-        // beállítom a t6 szomszédait
-        t6.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // létrehozok egy listát, amelyben a t7 szomszédai lesznek
-        neighborList.add(t6);
-        for (int i = centre; i < neighbors.size(); i++) {
-            neighborList.add(neighbors.get(i));
-        }
-
-        // beállítom a t7 szomszédait
-        t7.addNeighbor(neighborList);
-        neighborList.clear();
-
-        // a jelenlegi tekton szomszédait beállítom, hozzáadva szomszédsági listájukhoz
-        // a megfelelő létrejött tektont
-        // valamint kivéve a kettétötött tektont
-
-        for (int i = 0; i < centre; i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t6);
-            }
-        }
-
-        for (int i = centre; i < neighbors.size(); i++) {
-            if(neighbors.get(i)!=null){
-                neighbors.get(i).exchange(this, t7);
-            }
-        }
-
-        if(i!=null){
-            // a tektonon levő bogarat ráhelyezem a t6-ra
-            t6.setInsect(i);
-            // beállítom a bogár pozícióját
-            i.setPosition(t6);
-        }
-        // kitörlöm a tektont a fonálról
-        if(thread!=null){
-            thread.removeTecton(this);
-
-        // ha keletkezett olyan fonálrész, amely a kettétörés során már nem kapcsolódik
-        // gombatesthez ezt eltávolítom
-
-            thread.deleteUnnecessaryThreads();
+        // gombatestet tartó tekton nem törhet ketté
+        if (mushroom != null) {
+            return new ArrayList<>();
         }
+        return split();
     }
-    return ret;
 
+
+    /**
+     * Létrehoz egy új SingleThreadTecton-t, a kettétörés egyik darabját.
+     *
+     * @return Az új tekton.
+     */
+    protected Tecton createPiece() {
+        return new SingleThreadTecton();
     }
 
 
@@ -240,11 +157,11 @@ public class SingleThreadTecton extends Tecton {
      * @return true, ha az első gombatest sikeresen lerakásra kerül; false, ha már létezik gombatest.
      */
     public boolean putFirstMushroom(FungalThread f, Mushroom m) {
-        if (mushroom == null && thread == null) {
+        if (mushroom == null && threadCount() == 0) {
             mushroom = m;
+            mushroomChanged();
             mushroom.setPosition(this);
             mushroom.setThread(f);
-            thread = f;
             f.addTecton(this);
 
             return true;
@@ -297,8 +214,8 @@ public class SingleThreadTecton extends Tecton {
      * @param f A hozzáadni kívánt gombafonal (FungalThread objektum).
      */
     public void addThread(FungalThread f) {
-        if (thread == null) {
-            thread = f;
+        if (threadCount() == 0) {
+            linkThread(f);
         }
     }
 
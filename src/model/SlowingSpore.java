@@ -23,4 +23,14 @@ public class SlowingSpore extends Spore {
         i.setState(InsectState.SLOWED);
     }
 
+
+    /**
+     * Visszaadja a spóra fajtáját.
+     *
+     * @return SporeType.SLOWING
+     */
+    public SporeType getType() {
+        return SporeType.SLOWING;
+    }
+
 }
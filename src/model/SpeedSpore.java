@@ -25,4 +25,13 @@ public class SpeedSpore extends Spore {
     }
 
 
+    /**
+     * Visszaadja a spóra fajtáját.
+     *
+     * @return SporeType.SPEED
+     */
+    public SporeType getType() {
+        return SporeType.SPEED;
+    }
+
 }
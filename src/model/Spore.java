@@ -5,6 +5,10 @@ package model;
  * definiál. Ez az osztály alapvető funkcionalitást és interfészt biztosít
  * különféle specifikus spóra implementációk számára, amelyek különféle hatásokat
  * alkalmazhatnak rovarokra.
+ * <p>
+ * A spórának a fonalán és a fajtáján kívül nincs állapota, ezért a játékban
+ * fonalanként és fajtánként egyetlen közös példány van (FungalThread.getSpore),
+ * a hatás alkalmazása pedig csak a példány fajtájától függ.
  */
 public abstract class Spore implements ISporeController {
 
@@ -21,11 +25,16 @@ public abstract class Spore implements ISporeController {
 
 
     /**
-     * Beállítja a Spore példányhoz tartozó FungalThread objektumot.
+     * Beállítja a Spore példányhoz tartozó FungalThread objektumot. A fonal
+     * közös spórájai minden birtokosukra érvényesek, ezért a fonal csak
+     * egyszer állítható be; csak a FungalThread.getSpore hívja.
      *
      * @param thread A beállítandó FungalThread példány.
      */
-    public void setThread(FungalThread thread) {
+    void setThread(FungalThread thread) {
+        if (this.thread != null && this.thread != thread) {
+            throw new IllegalStateException("A spóra már egy másik fonalhoz tartozik");
+        }
         this.thread = thread;
     }
 
@@ -47,4 +56,12 @@ public abstract class Spore implements ISporeController {
      */
     public abstract void applyEffect(Insect i);
 
+
+    /**
+     * Absztrakt metódus, amely visszaadja a spóra fajtáját.
+     *
+     * @return A spóra fajtája.
+     */
+    public abstract SporeType getType();
+
 }
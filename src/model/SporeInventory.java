@@ -0,0 +1,319 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A SporeInventory egy tekton spórakészletét tartja nyilván úgy, hogy a
+ * gyakori lekérdezéseknek ne kelljen a teljes készletet végigjárnia.
+ * <p>
+ * A spórák fonalanként külön sorba (lane) kerülnek, érkezési sorrendben. Mivel
+ * fonalanként és fajtánként egyetlen spórapéldány létezik, a sor csak a spórák
+ * fajtáját tárolja, a példányt lekérdezéskor a sor fonalától kéri el. Minden
+ * spóra egy növekvő sorszámot is kap, így a tektonon legrégebben lévő spóra a
+ * sorok elején álló spórák közül a legkisebb sorszámú. A sorok fajtánként is
+ * számolják a spóráikat.
+ * <p>
+ * A sorokat a hívó egy kis egész számmal (slot) azonosítja: a 0 a fonál nélküli
+ * spóráké, a többi a fonál gráfbeli azonosítója plusz egy.
+ */
+class SporeInventory {
+
+    private static final SporeType[] TYPES = SporeType.values();
+
+    private Lane[] lanes;
+    private final BitSet occupied;
+    private int total;
+    private long nextOrder;
+
+
+    /**
+     * Egy fonál spóráinak körkörös puffere, érkezési sorrendben. A puffer a
+     * spórák fajtájának sorszámát tárolja.
+     */
+    private static class Lane {
+
+        private final FungalThread owner;
+        private final Spore[] unowned;
+        private byte[] types;
+        private long[] order;
+        private int head;
+        private int size;
+        private final int[] typeCount;
+
+        Lane(FungalThread owner) {
+            this.owner = owner;
+            unowned = owner == null ? new Spore[TYPES.length] : null;
+            types = new byte[4];
+            order = new long[4];
+            head = 0;
+            size = 0;
+            typeCount = new int[TYPES.length];
+        }
+
+        /**
+         * Visszaadja a sor adott fajtájú spórapéldányát. Fonál nélküli
+         * spóráknál a sor maga tart fajtánként egy példányt.
+         */
+        Spore spore(int type) {
+            if (owner != null) {
+                return owner.getSpore(TYPES[type]);
+            }
+            if (unowned[type] == null) {
+                unowned[type] = TYPES[type].newSpore();
+            }
+            return unowned[type];
+        }
+
+        void push(int type, long o) {
+            if (size == types.length) {
+                grow();
+            }
+            int idx = (head + size) & (types.length - 1);
+            types[idx] = (byte) type;
+            order[idx] = o;
+            size++;
+            typeCount[type]++;
+        }
+
+        Spore peek() {
+            return spore(types[head]);
+        }
+
+        long peekOrder() {
+            return order[head];
+        }
+
+        Spore poll() {
+            int type = types[head];
+            head = (head + 1) & (types.length - 1);
+            size--;
+            typeCount[type]--;
+            return spore(type);
+        }
+
+        Spore get(int k) {
+            return spore(types[(head + k) & (types.length - 1)]);
+        }
+
+        long orderAt(int k) {
+            return order[(head + k) & (types.length - 1)];
+        }
+
+        boolean remove(int type) {
+            int mask = types.length - 1;
+            for (int k = 0; k < size; k++) {
+                if (types[(head + k) & mask] == type) {
+                    // a mögötte lévő elemeket egy hellyel előrébb tolom
+                    for (int j = k; j < size - 1; j++) {
+                        types[(head + j) & mask] = types[(head + j + 1) & mask];
+                        order[(head + j) & mask] = order[(head + j + 1) & mask];
+                    }
+                    size--;
+                    typeCount[type]--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void grow() {
+            int cap = types.length * 2;
+            byte[] newTypes = new byte[cap];
+            long[] newOrder = new long[cap];
+            for (int k = 0; k < size; k++) {
+                newTypes[k] = types[(head + k) & (types.length - 1)];
+                newOrder[k] = orderAt(k);
+            }
+            types = newTypes;
+            order = newOrder;
+            head = 0;
+        }
+    }
+
+
+    /**
+     * Létrehoz egy üres spórakészletet.
+     */
+    SporeInventory() {
+        lanes = new Lane[4];
+        occupied = new BitSet();
+        total = 0;
+        nextOrder = 0;
+    }
+
+
+    /**
+     * A készlet végére teszi a spórát.
+     *
+     * @param slot A spóra fonalának sora.
+     * @param sp   A hozzáadott spóra.
+     */
+    void add(int slot, Spore sp) {
+        if (slot >= lanes.length) {
+            Lane[] newLanes = new Lane[Math.max(slot + 1, lanes.length * 2)];
+            System.arraycopy(lanes, 0, newLanes, 0, lanes.length);
+            lanes = newLanes;
+        }
+        if (lanes[slot] == null) {
+            lanes[slot] = new Lane(slot == 0 ? null : sp.getThread());
+        }
+        lanes[slot].push(sp.getType().ordinal(), nextOrder++);
+        occupied.set(slot);
+        total++;
+    }
+
+
+    /**
+     * @return A készletben lévő összes spóra száma.
+     */
+    int count() {
+        return total;
+    }
+
+
+    /**
+     * @param slot A fonál sora.
+     * @return A fonálhoz tartozó spórák száma.
+     */
+    int count(int slot) {
+        if (slot < 0 || slot >= lanes.length || lanes[slot] == null) {
+            return 0;
+        }
+        return lanes[slot].size;
+    }
+
+
+    /**
+     * @param slot A fonál sora.
+     * @param type A spóra fajtája.
+     * @return A fonálhoz tartozó, adott fajtájú spórák száma.
+     */
+    int count(int slot, SporeType type) {
+        if (slot < 0 || slot >= lanes.length || lanes[slot] == null) {
+            return 0;
+        }
+        return lanes[slot].typeCount[type.ordinal()];
+    }
+
+
+    /**
+     * Visszaadja a legrégebben érkezett spórát anélkül, hogy kivenné.
+     *
+     * @return A legrégebbi spóra, vagy null, ha a készlet üres.
+     */
+    Spore peekFirst() {
+        int slot = firstSlot();
+        return slot < 0 ? null : lanes[slot].peek();
+    }
+
+
+    /**
+     * Kiveszi a legrégebben érkezett spórát.
+     *
+     * @return A kivett spóra, vagy null, ha a készlet üres.
+     */
+    Spore pollFirst() {
+        int slot = firstSlot();
+        return slot < 0 ? null : poll(slot);
+    }
+
+
+    /**
+     * Kiveszi a fonál legfeljebb k legrégebbi spóráját.
+     *
+     * @param slot A fonál sora.
+     * @param k    A kivenni kívánt spórák száma.
+     * @return A kivett spórák, érkezési sorrendben.
+     */
+    List<Spore> take(int slot, int k) {
+        List<Spore> taken = new ArrayList<>();
+        while (taken.size() < k && count(slot) > 0) {
+            taken.add(poll(slot));
+        }
+        return taken;
+    }
+
+
+    /**
+     * Kiveszi a fonál sorából a legrégebbi, a spórával azonos fajtájú spórát.
+     *
+     * @param slot A spóra fonalának sora.
+     * @param sp   A kivenni kívánt spóra.
+     * @return true, ha volt ilyen spóra a készletben.
+     */
+    boolean remove(int slot, Spore sp) {
+        if (count(slot) == 0 || !lanes[slot].remove(sp.getType().ordinal())) {
+            return false;
+        }
+        total--;
+        if (lanes[slot].size == 0) {
+            occupied.clear(slot);
+        }
+        return true;
+    }
+
+
+    /**
+     * Kiüríti a készletet.
+     */
+    void clear() {
+        for (int slot = occupied.nextSetBit(0); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+            lanes[slot] = null;
+        }
+        occupied.clear();
+        total = 0;
+    }
+
+
+    /**
+     * Összefésüli a sorokat egy listába, érkezési sorrendben.
+     *
+     * @return A készlet spóráinak új listája.
+     */
+    List<Spore> toList() {
+        List<Spore> list = new ArrayList<>(total);
+        int[] pos = new int[lanes.length];
+        while (list.size() < total) {
+            int best = -1;
+            long bestOrder = Long.MAX_VALUE;
+            for (int slot = occupied.nextSetBit(0); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+                if (pos[slot] < lanes[slot].size && lanes[slot].orderAt(pos[slot]) < bestOrder) {
+                    best = slot;
+                    bestOrder = lanes[slot].orderAt(pos[slot]);
+                }
+            }
+            list.add(lanes[best].get(pos[best]++));
+        }
+        return list;
+    }
+
+
+    private Spore poll(int slot) {
+        Spore sp = lanes[slot].poll();
+        total--;
+        if (lanes[slot].size == 0) {
+            occupied.clear(slot);
+        }
+        return sp;
+    }
+
+
+    /**
+     * Megkeresi azt a sort, amelynek elején a legrégebbi spóra áll. A sorok
+     * száma legfeljebb a tektonon spórát hagyó fonalak száma.
+     */
+    private int firstSlot() {
+        int best = -1;
+        long bestOrder = Long.MAX_VALUE;
+        for (int slot = occupied.nextSetBit(0); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+            if (lanes[slot].peekOrder() < bestOrder) {
+                best = slot;
+                bestOrder = lanes[slot].peekOrder();
+            }
+        }
+        return best;
+    }
+
+}
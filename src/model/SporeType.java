@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * A SporeType a spórák fajtáinak reprezentálására szolgál.
+ * <p>
+ * Az alábbi fajtákat különbözteti meg:
+ * - **SLOWING**: lassító spóra.
+ * - **SPEED**: gyorsító spóra.
+ * - **PARALYSING**: bénító spóra.
+ * - **NOCUT**: vágásgátló spóra.
+ * - **DIVIDING**: osztódást okozó spóra.
+ * <p>
+ * A tektonok spórakészlete fonalanként és fajtánként ez alapján tartja
+ * nyilván a spórák számát. Mivel egy spórának a fonalán és a fajtáján kívül
+ * nincs állapota, fonalanként és fajtánként egyetlen spórapéldány létezik
+ * (lásd FungalThread.getSpore).
+ */
+public enum SporeType {
+    SLOWING,
+    SPEED,
+    PARALYSING,
+    NOCUT,
+    DIVIDING;
+
+
+    /**
+     * Létrehoz egy új, fonálhoz még nem rendelt spórát ebből a fajtából.
+     *
+     * @return Az új spóra.
+     */
+    Spore newSpore() {
+        switch (this) {
+            case SLOWING:
+                return new SlowingSpore();
+            case SPEED:
+                return new SpeedSpore();
+            case PARALYSING:
+                return new ParalysingSpore();
+            case NOCUT:
+                return new NoCutSpore();
+            default:
+                return new DividingSpore();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 
 /**
  * A Tecton osztály egy absztrakt osztály, amely a játék tektonjait
@@ -9,35 +13,200 @@ import java.util.List;
  */
 public abstract class Tecton implements ITectonController, ITectonView {
 
-    protected List<Spore> spores;
+    private final SporeInventory spores;
     protected List<Tecton> neighbors;
     protected Insect i;
 
+    private TectonGraph graph;
+    private int id;
+    private final BitSet threadSet;
+    private Mushroom lastMushroom;
+
     /**
      * Létrehozza egy Tecton osztály példányát a megfelelő mezők inicializálásával.
      */
     public Tecton() {
-        spores = new ArrayList<>();
-        neighbors = new ArrayList<>();
+        spores = new SporeInventory();
+        neighbors = new NeighborList();
         i = null;
+        graph = null;
+        id = -1;
+        threadSet = new BitSet();
+        lastMushroom = null;
+    }
+
+    /**
+     * A tekton szomszédainak csak olvasható nézete, amely közvetlenül a
+     * gráf soraiból olvas. Az i. elem a sokszög i. oldalán lévő szomszéd,
+     * vagy null, ha azon az oldalon nincs szomszéd.
+     */
+    private class NeighborList extends AbstractList<Tecton> implements RandomAccess {
+
+        @Override
+        public Tecton get(int idx) {
+            if (graph == null || idx < 0 || idx >= graph.degree(id)) {
+                throw new IndexOutOfBoundsException(idx);
+            }
+            return graph.getTecton(graph.neighborAt(id, idx));
+        }
+
+        @Override
+        public int size() {
+            return graph == null ? 0 : graph.degree(id);
+        }
+    }
+
+    /**
+     * A gráf hívja regisztrációkor; beállítja a tekton gráfját és azonosítóját.
+     */
+    void bind(TectonGraph g, int id) {
+        this.graph = g;
+        this.id = id;
     }
 
     /**
-     * Beállítja a Tecton-hoz tartozó spórák listáját.
+     * Visszaadja a tekton gráfbeli azonosítóját.
+     *
+     * @return A tekton azonosítója, vagy -1, ha még nincs gráfban.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Visszaadja a gráfot, amelyhez a tekton tartozik, ha van ilyen.
+     *
+     * @return A tekton gráfja, vagy null.
+     */
+    TectonGraph getGraphIfBound() {
+        return graph;
+    }
+
+    /**
+     * Visszaadja a gráfot, amelyhez a tekton tartozik. Ha a tekton még nincs
+     * gráfban, létrehoz neki egy újat.
+     *
+     * @return A tekton gráfja.
+     */
+    public TectonGraph getGraph() {
+        if (graph == null) {
+            new TectonGraph().register(this);
+        }
+        return graph;
+    }
+
+    /**
+     * Beállítja a Tecton-hoz tartozó spórákat: a korábbiakat eldobja, és a
+     * lista spóráit érkezési sorrendként veszi fel.
      *
      * @param list A spórák listája, amelyet a Tecton példányhoz társítani kell.
      */
     public void setSpores(List<Spore> list) {
-        spores = list;
+        beginBatch();
+        if (hasListeners()) {
+            for (Spore sp : spores.toList()) {
+                emit(ModelEventType.SPORE_REMOVED, sp);
+            }
+        }
+        spores.clear();
+        for (Spore sp : list) {
+            addSpore(sp);
+        }
+        endBatch();
     }
 
     /**
-     * Visszaadja a Tecton objektumhoz tartozó spórák listáját.
+     * Visszaadja a Tecton objektumhoz tartozó spórák listáját érkezési sorrendben.
+     * A lista másolat, módosítása nem hat a tektonra.
      *
-     * @return A Tecton-hoz tartozó spórák listája.
+     * @return A Tecton-hoz tartozó spórák új listája.
      */
     public List<Spore> getSpores() {
-        return spores;
+        return spores.toList();
+    }
+
+    /**
+     * Visszaadja a spórakészletben a fonál sorának számát, ha a fonál
+     * ebben a gráfban van; egyébként -1-et.
+     */
+    private int sporeSlot(FungalThread f) {
+        if (f == null) {
+            return 0;
+        }
+        if (graph == null || f.getGraph() != graph) {
+            return -1;
+        }
+        return f.getId() + 1;
+    }
+
+    /**
+     * Visszaadja a tektonon lévő spórák számát.
+     *
+     * @return A spórák száma.
+     */
+    public int sporeCount() {
+        return spores.count();
+    }
+
+    /**
+     * Visszaadja a tektonon lévő, a megadott fonálhoz tartozó spórák számát.
+     *
+     * @param f A fonál, amelynek spóráit számoljuk.
+     * @return A fonálhoz tartozó spórák száma.
+     */
+    public int sporeCount(FungalThread f) {
+        return spores.count(sporeSlot(f));
+    }
+
+    /**
+     * Visszaadja a tektonon lévő, a megadott fonálhoz tartozó, adott fajtájú
+     * spórák számát.
+     *
+     * @param f    A fonál, amelynek spóráit számoljuk.
+     * @param type A spóra fajtája.
+     * @return A fonálhoz tartozó, adott fajtájú spórák száma.
+     */
+    public int sporeCount(FungalThread f, SporeType type) {
+        return spores.count(sporeSlot(f), type);
+    }
+
+    /**
+     * Visszaadja a tektonra legrégebben került spórát, ezt eszi meg az ide lépő rovar.
+     *
+     * @return A legrégebbi spóra, vagy null, ha nincs spóra a tektonon.
+     */
+    public Spore peekSpore() {
+        return spores.peekFirst();
+    }
+
+    /**
+     * Leveszi a tektonról a legrégebben rákerült spórát.
+     *
+     * @return A levett spóra, vagy null, ha nem volt spóra a tektonon.
+     */
+    public Spore pollSpore() {
+        Spore sp = spores.pollFirst();
+        if (sp != null) {
+            emit(ModelEventType.SPORE_REMOVED, sp);
+        }
+        return sp;
+    }
+
+    /**
+     * Leveszi a tektonról a fonál legfeljebb k legrégebbi spóráját.
+     *
+     * @param f A fonál, amelynek spóráit levesszük.
+     * @param k A levenni kívánt spórák száma.
+     * @return A levett spórák listája.
+     */
+    public List<Spore> takeSpores(FungalThread f, int k) {
+        List<Spore> taken = spores.take(sporeSlot(f), k);
+        beginBatch();
+        for (Spore sp : taken) {
+            emit(ModelEventType.SPORE_REMOVED, sp);
+        }
+        endBatch();
+        return taken;
     }
 
     /**
@@ -47,7 +216,24 @@ public abstract class Tecton implements ITectonController, ITectonView {
      *                  társítani kell.
      */
     public void setNeighbors(List<Tecton> neighbors) {
-        this.neighbors = neighbors;
+        if (graph == null) {
+            adoptGraph(neighbors);
+        }
+        graph.setRow(id, neighbors);
+    }
+
+    /**
+     * Egy még gráfon kívüli tektont a szomszédai közül az első, már gráfban
+     * lévő tekton gráfjába vesz fel; ha nincs ilyen, új gráfot hoz létre.
+     */
+    private void adoptGraph(List<Tecton> list) {
+        for (Tecton t : list) {
+            if (t != null && t.graph != null) {
+                t.graph.register(this);
+                return;
+            }
+        }
+        getGraph();
     }
 
     /**
@@ -59,13 +245,40 @@ public abstract class Tecton implements ITectonController, ITectonView {
         return neighbors;
     }
 
+    /**
+     * Végrehajtja a műveletet a tekton összes létező szomszédján, a sokszög
+     * oldalainak sorrendjében, lista létrehozása nélkül. A szomszéd nélküli
+     * oldalakat kihagyja.
+     *
+     * @param action A szomszédokon végrehajtandó művelet.
+     */
+    public void forEachNeighbor(Consumer<Tecton> action) {
+        if (graph == null) {
+            return;
+        }
+        int degree = graph.degree(id);
+        for (int i = 0; i < degree; i++) {
+            Tecton n = graph.getTecton(graph.neighborAt(id, i));
+            if (n != null) {
+                action.accept(n);
+            }
+        }
+    }
+
     /**
      * Beállítja a Tecton-hoz tartozó rovar objektumot.
      *
      * @param i Az új rovar objektum, amelyet a Tecton-hoz rendelünk.
      */
     public void setInsect(Insect i) {
+        Insect old = this.i;
         this.i = i;
+        occupancyChanged();
+        if (i != null) {
+            emit(ModelEventType.INSECT_PLACED, i);
+        } else if (old != null) {
+            emit(ModelEventType.INSECT_REMOVED, old);
+        }
     }
 
     /**
@@ -77,34 +290,378 @@ public abstract class Tecton implements ITectonController, ITectonView {
         return i;
     }
 
+    /**
+     * Megadja, hogy a tektonon van-e rovar.
+     *
+     * @return true, ha a tektonon rovar van.
+     */
+    public boolean isOccupied() {
+        return i != null;
+    }
+
+    /**
+     * Visszaadja a sokszög oldalainak sorrendjében az első olyan szomszédot,
+     * amelyen nincs rovar. A választ a gráf foglaltsági bitsetje adja.
+     *
+     * @return Az első szabad szomszéd, vagy null, ha nincs ilyen.
+     */
+    public Tecton firstFreeNeighbor() {
+        if (graph == null) {
+            return null;
+        }
+        int slot = graph.firstFreeNeighbor(id);
+        return slot < 0 ? null : graph.getTecton(graph.neighborAt(id, slot));
+    }
+
+    /**
+     * Megszámolja azokat a szomszédos oldalakat, amelyeken rovar nélküli
+     * tekton van.
+     *
+     * @return A szabad szomszédos oldalak száma.
+     */
+    public int freeNeighborCount() {
+        return graph == null ? 0 : graph.freeNeighborCount(id);
+    }
+
+    /**
+     * Jelzi a gráfnak, hogy a tekton foglaltsága megváltozhatott.
+     */
+    private void occupancyChanged() {
+        if (graph != null) {
+            graph.setOccupied(id, i != null);
+        }
+    }
+
+    /**
+     * Felveszi a fonalat a tektonra. A tekton fonalainak bitsetjét és a fonál
+     * tektonjainak bitsetjét együtt tartja karban, így a két irány mindig
+     * ugyanazt a kapcsolatot írja le. A fonál ekkor kerül be a tekton
+     * gráfjába, ha még nem volt benne.
+     *
+     * @param f A tektonra kerülő fonál.
+     * @return true, ha a fonál eddig nem volt a tektonon.
+     */
+    boolean linkThread(FungalThread f) {
+        int tid = getGraph().registerThread(f);
+        if (threadSet.get(tid)) {
+            return false;
+        }
+        threadSet.set(tid);
+        f.attach(this);
+        emit(ModelEventType.THREAD_ADDED, f);
+        if (absorbsThreads()) {
+            graph.setAbsorbing(id, true);
+        }
+        return true;
+    }
+
+    /**
+     * Leveszi a fonalat a tektonról, mindkét irányban.
+     *
+     * @param f A tektonról levett fonál.
+     * @return true, ha a fonál a tektonon volt.
+     */
+    boolean unlinkThread(FungalThread f) {
+        if (!hasThread(f)) {
+            return false;
+        }
+        threadSet.clear(f.getId());
+        f.detach(this);
+        emit(ModelEventType.THREAD_REMOVED, f);
+        if (absorbsThreads() && threadSet.isEmpty()) {
+            graph.setAbsorbing(id, false);
+        }
+        return true;
+    }
+
+    /**
+     * Megadja, hogy a fonál rajta van-e a tektonon.
+     *
+     * @param f A vizsgált fonál.
+     * @return true, ha a fonál rajta van a tektonon.
+     */
+    public boolean hasThread(FungalThread f) {
+        return f != null && graph != null && f.getGraph() == graph && threadSet.get(f.getId());
+    }
+
+    /**
+     * Megadja, hogy a két tektonon van-e közös fonál. A vizsgálat a két
+     * bitset egyetlen metszetvizsgálata.
+     *
+     * @param t A másik tekton.
+     * @return true, ha van olyan fonál, amely mindkét tektonon rajta van.
+     */
+    public boolean sharesThread(Tecton t) {
+        return t != null && graph != null && t.graph == graph && threadSet.intersects(t.threadSet);
+    }
+
+    /**
+     * Visszaadja a tektonon lévő fonalak számát.
+     *
+     * @return A fonalak száma.
+     */
+    public int threadCount() {
+        return threadSet.cardinality();
+    }
+
+    /**
+     * Végrehajtja a műveletet a tektonon lévő összes fonálra, azonosító szerinti
+     * sorrendben, lista létrehozása nélkül. A művelet nem veheti le a fonalat a
+     * tektonról; ehhez a getThreads() másolatát kell használni.
+     *
+     * @param action A fonalakon végrehajtandó művelet.
+     */
+    public void forEachThread(Consumer<FungalThread> action) {
+        for (int tid = threadSet.nextSetBit(0); tid >= 0; tid = threadSet.nextSetBit(tid + 1)) {
+            action.accept(graph.getThread(tid));
+        }
+    }
+
+    /**
+     * Megadja, hogy van-e olyan szomszéd, amelyen rajta van a fonál.
+     *
+     * @param f A keresett fonál.
+     * @return true, ha valamelyik szomszédon rajta van a fonál.
+     */
+    boolean hasNeighborWithThread(FungalThread f) {
+        if (graph == null) {
+            return false;
+        }
+        int degree = graph.degree(id);
+        for (int i = 0; i < degree; i++) {
+            Tecton n = graph.getTecton(graph.neighborAt(id, i));
+            if (n != null && n.hasThread(f)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visszaadja azokat a gombafonalakat, amelyek a tektonon találhatók,
+     * azonosító szerinti sorrendben.
+     *
+     * @return A tektonon lévő gombafonalak új listája.
+     */
+    public List<FungalThread> getThreads() {
+        List<FungalThread> list = new ArrayList<>();
+        for (int tid = threadSet.nextSetBit(0); tid >= 0; tid = threadSet.nextSetBit(tid + 1)) {
+            list.add(graph.getThread(tid));
+        }
+        return list;
+    }
+
+    /**
+     * Beállítja a tektonon lévő gombafonalakat: a listában nem szereplő fonalakat
+     * leveszi, a listában szereplőket felveszi.
+     *
+     * @param list A tektonon maradó gombafonalak listája.
+     */
+    public void setThreads(List<FungalThread> list) {
+        for (FungalThread f : getThreads()) {
+            if (!list.contains(f)) {
+                unlinkThread(f);
+            }
+        }
+        for (FungalThread f : list) {
+            linkThread(f);
+        }
+    }
+
+    /**
+     * Eltávolítja a megadott gombafonalat a tektonról.
+     *
+     * @param f A törölni kívánt fonal.
+     * @return true, ha a művelet sikeres.
+     */
+    public boolean removeThread(FungalThread f) {
+        unlinkThread(f);
+        return true;
+    }
+
     // -- Absztrakt Metódusok -- //
 
     public abstract boolean setMushroom(Mushroom mushroom);
 
     public abstract Mushroom getMushroom();
 
-    public abstract void setThreads(List<FungalThread> threads);
-
-    public abstract List<FungalThread> getThreads();
-
     public abstract boolean putMushroom(Mushroom m);
 
     public abstract boolean putThread(FungalThread f);
 
+    /**
+     * Megadja, hogy a fonál elágaztatható-e erre a tektonra, a tekton
+     * módosítása nélkül: a fonál még nincs rajta, és valamelyik szomszédján
+     * rajta van.
+     *
+     * @param f A fonál.
+     * @return true, ha a fonál elágaztatása sikerülne.
+     */
+    public boolean canPutThread(FungalThread f) {
+        return !hasThread(f) && hasNeighborWithThread(f);
+    }
+
     public abstract void addThread(FungalThread f); // Csak simán add-olja az f-et nem végez ellenőrzést
 
     public abstract boolean removeMushroom();
 
-    public abstract boolean removeThread(FungalThread f);
-
     public abstract List<Tecton> breakTecton();
 
+    /**
+     * Visszaadja a tekton sokszögének oldalszámát, vagyis a szomszédsági sor
+     * hosszát (a szomszéd nélküli oldalakat is beleértve).
+     *
+     * @return Az oldalak száma.
+     */
+    public int getEdgeCount() {
+        return graph == null ? 0 : graph.degree(id);
+    }
+
+    /**
+     * Megadja, hogy a tekton kettétörhető-e: legalább négy oldala van, nincs
+     * rajta gombatest, és még nem tört ketté.
+     *
+     * @return true, ha a tekton kettétörhető.
+     */
+    public boolean canBreak() {
+        return graph != null && graph.isBreakable(id);
+    }
+
+    /**
+     * A leszármazottak hívják, ha a tektonon lévő gombatest megváltozott, hogy
+     * a gráf a tekton törhetőségét újraértékelje, és a változásról esemény
+     * keletkezzen.
+     */
+    protected void mushroomChanged() {
+        Mushroom m = getMushroom();
+        if (m == lastMushroom) {
+            return;
+        }
+        if (graph != null) {
+            graph.updateBreakable(id);
+        }
+        beginBatch();
+        if (lastMushroom != null) {
+            emit(ModelEventType.MUSHROOM_DIED, lastMushroom);
+        }
+        if (m != null) {
+            emit(ModelEventType.MUSHROOM_GROWN, m);
+        }
+        endBatch();
+        lastMushroom = m;
+    }
+
+    /**
+     * Jelez egy, a tektonon történt változást a gráf eseménybuszán.
+     *
+     * @param type   A változás fajtája.
+     * @param target A változás tárgya.
+     */
+    void emit(ModelEventType type, Object target) {
+        if (graph != null) {
+            graph.getEvents().emit(type, this, target);
+        }
+    }
+
+    /**
+     * Megnyit egy eseményköteget a gráf eseménybuszán.
+     */
+    void beginBatch() {
+        if (graph != null) {
+            graph.getEvents().beginBatch();
+        }
+    }
+
+    /**
+     * Lezárja a beginBatch által megnyitott eseményköteget.
+     */
+    void endBatch() {
+        if (graph != null) {
+            graph.getEvents().endBatch();
+        }
+    }
+
+    /**
+     * Megadja, hogy a tekton eseményeit figyeli-e valaki.
+     */
+    private boolean hasListeners() {
+        return graph != null && graph.getEvents().hasListeners();
+    }
+
+    /**
+     * Létrehoz egy, a tektonnal azonos fajtájú, üres tektont, amely a tekton
+     * kettétörésekor az egyik darab lesz.
+     *
+     * @return Az új, még gráfon kívüli tekton.
+     */
+    protected abstract Tecton createPiece();
+
+    /**
+     * Kettétöri a tektont. A két darabot a createPiece hozza létre, a
+     * szomszédságukat a gráf egyetlen lépésben, a szomszédok számával arányos
+     * időben állítja elő. A tektonon lévő rovar az első darabra kerül.
+     * <p>
+     * A tektont előbb minden rajta lévő fonál elveszíti, és csak ezután
+     * keresik meg a fonalak a gombatesthez már nem kapcsolódó részeiket, így
+     * minden érintett fonál egyszer, a törés teljes eredményét látva
+     * vágja le a felesleges részeit. A vizsgálat csak a törés által
+     * megjelölt komponenseket építi újra, a fonalakra párhuzamosan.
+     *
+     * @return A két új tektont tartalmazó lista.
+     */
+    protected List<Tecton> split() {
+        TectonGraph g = getGraph();
+        ModelEventBus events = g.getEvents();
+        events.beginBatch();
+        Tecton t6 = createPiece();
+        Tecton t7 = createPiece();
+        g.register(t6);
+        g.register(t7);
+        g.split(id, t6.id, t7.id);
+        g.retire(id);
+
+        List<Tecton> ret = new ArrayList<>();
+        ret.add(t6);
+        ret.add(t7);
+
+        if (i != null) {
+            // a tektonon levő bogarat ráhelyezem az első darabra
+            t6.setInsect(i);
+            i.setPosition(t6);
+            setInsect(null);
+        }
+
+        // kitörlöm a tektont az összes fonálról, majd egyszerre vágom le a
+        // gombatesthez már nem kapcsolódó részeket
+        List<FungalThread> affected = getThreads();
+        for (FungalThread f : affected) {
+            f.removeTecton(this);
+        }
+        ThreadCleanup.pruneAll(affected);
+
+        emit(ModelEventType.TECTON_SPLIT, t6);
+        emit(ModelEventType.TECTON_SPLIT, t7);
+        events.endBatch();
+        return ret;
+    }
+
     public abstract boolean putFirstMushroom(FungalThread f, Mushroom m);
 
     public abstract boolean isConnected(FungalThread f);
 
     public abstract void absorb();
 
+    /**
+     * Megadja, hogy a tekton felszívja-e a rajta lévő fonalakat. Az ilyen
+     * tektonokat a gráf nyilvántartja, amíg fonál van rajtuk, így a felszívás
+     * csak ezeket a tektonokat érinti.
+     *
+     * @return true, ha a tekton felszívja a fonalakat.
+     */
+    protected boolean absorbsThreads() {
+        return false;
+    }
+
     public abstract boolean canPutMushroom();
 
     // -- //
@@ -118,10 +675,10 @@ public abstract class Tecton implements ITectonController, ITectonView {
      *         spóra nem lett hozzáadva.
      */
     public boolean putSpore(Spore sp, Tecton t) {
-        if (!neighbors.contains(t)) {
+        if (!isNeighbor(t)) {
             return false;
         } else {
-            spores.add(sp);
+            addSpore(sp);
             return true;
         }
     }
@@ -132,7 +689,9 @@ public abstract class Tecton implements ITectonController, ITectonView {
      * @param sp A Spore objektum, amelyet hozzá kívánunk adni.
      */
     public void addSpore(Spore sp) {
-        spores.add(sp);
+        FungalThread f = sp.getThread();
+        spores.add(f == null ? 0 : getGraph().registerThread(f) + 1, sp);
+        emit(ModelEventType.SPORE_ADDED, sp);
     }
 
     /**
@@ -148,16 +707,16 @@ public abstract class Tecton implements ITectonController, ITectonView {
 
         List<Tecton> tectons = new ArrayList<>();
 
-        // végigmegy a szomzsédokon, és lekéri a threads tömbjüket, ha ebben benne van
-        // f, akkor hozzáadja a tectons listához
-        for (int i = 0; i < neighbors.size(); i++) {
-            if (neighbors.get(i) != null) {
-                List<FungalThread> list = neighbors.get(i).getThreads();
-                if (list != null) {
-                    if (list.contains(f)) {
-                        tectons.add(neighbors.get(i));
-                    }
-                }
+        if (graph == null) {
+            return tectons;
+        }
+
+        // végigmegy a szomzsédokon, és ha f rajta van, akkor hozzáadja a tectons listához
+        int degree = graph.degree(id);
+        for (int i = 0; i < degree; i++) {
+            Tecton n = graph.getTecton(graph.neighborAt(id, i));
+            if (n != null && n.hasThread(f)) {
+                tectons.add(n);
             }
         }
 
@@ -178,6 +737,8 @@ public abstract class Tecton implements ITectonController, ITectonView {
         if (i == null) {
             ins.setPosition(this);
             i = ins;
+            occupancyChanged();
+            emit(ModelEventType.INSECT_PLACED, ins);
             return true;
         } else {
             return false;
@@ -198,24 +759,14 @@ public abstract class Tecton implements ITectonController, ITectonView {
         }
 
         if (i == null) {
-            List<FungalThread> list1;
-            List<FungalThread> list2;
-
-            // lekérjük a fonalakat
-
-            list1 = this.getThreads();
-            list2 = t.getThreads();
-
-            boolean connected = false;
-            for (int idx = 0; idx < list1.size(); idx++) {
-                if (list2.contains(list1.get(idx))) {
-                    connected = true;
-                }
-            }
+            // van-e közös fonál a két tektonon
+            boolean connected = sharesThread(t);
             if (connected) {
                 t.removeInsect();
                 i = ins;
                 i.setPosition(this);
+                occupancyChanged();
+                emit(ModelEventType.INSECT_MOVED, ins);
                 return true;
             } else {
                 return false;
@@ -233,7 +784,10 @@ public abstract class Tecton implements ITectonController, ITectonView {
      */
     public boolean removeInsect() {
         if (i != null) {
+            Insect old = i;
             i = null;
+            occupancyChanged();
+            emit(ModelEventType.INSECT_REMOVED, old);
             return true;
         } else {
             return false;
@@ -248,11 +802,42 @@ public abstract class Tecton implements ITectonController, ITectonView {
      *         különben.
      */
     public boolean isNeighbor(Tecton t) {
-        if (neighbors.contains(t)) {
-            return true;
-        } else {
+        if (t == null || graph == null || t.graph != graph) {
+            return false;
+        }
+        return graph.isNeighbor(id, t.id);
+    }
+
+    /**
+     * Megadja, hogy a t tekton legalább egy, legfeljebb k lépésben elérhető-e
+     * ebből a tektonból a szomszédságokon keresztül. A választ a gráf
+     * elérhetőségi indexe adja.
+     *
+     * @param t A vizsgált tekton.
+     * @param k A lépések legnagyobb száma.
+     * @return true, ha t legfeljebb k lépésben elérhető.
+     */
+    public boolean isWithinHops(Tecton t, int k) {
+        if (t == null || graph == null || t.graph != graph) {
             return false;
         }
+        return graph.getHopIndex().reaches(id, t.id, k);
+    }
+
+    /**
+     * Visszaadja a t tekton távolságát ettől a tektontól lépésekben, ha az
+     * legfeljebb maxHops.
+     *
+     * @param t       A vizsgált tekton.
+     * @param maxHops A figyelembe vett legnagyobb távolság.
+     * @return A távolság, 0 azonos tekton esetén, vagy -1, ha t nem érhető el
+     * legfeljebb maxHops lépésben.
+     */
+    public int hopDistance(Tecton t, int maxHops) {
+        if (t == null || graph == null || t.graph != graph) {
+            return -1;
+        }
+        return graph.getHopIndex().distance(id, t.id, maxHops);
     }
 
     /**
@@ -266,7 +851,10 @@ public abstract class Tecton implements ITectonController, ITectonView {
      * @return true értéket ad vissza, ha a művelet sikeres volt.
      */
     public boolean addNeighbor(List<Tecton> tlist) {
-        neighbors.addAll(tlist);
+        if (graph == null) {
+            adoptGraph(tlist);
+        }
+        graph.appendToRow(id, tlist);
         return true;
     }
 
@@ -279,7 +867,9 @@ public abstract class Tecton implements ITectonController, ITectonView {
      * @return Igaz értéket ad vissza, ha a szomszéd sikeresen eltávolításra került.
      */
     public boolean removeNeighbor(Tecton t) {
-        neighbors.remove(t);
+        if (graph != null) {
+            graph.removeFromRow(id, t == null ? TectonGraph.NO_NEIGHBOR : t.id);
+        }
         return true;
     }
 
@@ -294,42 +884,48 @@ public abstract class Tecton implements ITectonController, ITectonView {
      *         nem.
      */
     public boolean putEvolvedSpore(Spore sp, Tecton t) {
-        if (!neighbors.contains(t)) {
-            for (int i = 0; i < neighbors.size(); i++) {
-                if (neighbors.get(i) != null) {
-                    if (neighbors.get(i).getNeighbors().contains(t)) {
-                        spores.add(sp);
-                        return true;
-                    }
-                }
-            }
-
+        if (!isWithinHops(t, 2)) {
             return false;
-        } else {
-            spores.add(sp);
-            return true;
         }
+        addSpore(sp);
+        return true;
     }
 
     /**
      * Eltávolítja a megadott spórákat a Tecton objektumhoz tartozó spórák
-     * listájából.
+     * listájából. A lista minden eleméhez egy, vele azonos fonalú és fajtájú
+     * spórát vesz le, mivel ezek a spórák egymással felcserélhetők.
      *
      * @param slist A spórák listája, amelyeket el szeretnénk távolítani.
      * @return Igaz értéket ad vissza, ha a művelet végrehajtása sikeres.
      */
     public boolean removeSpores(List<Spore> slist) {
-        spores.removeAll(slist);
+        beginBatch();
+        for (Spore sp : slist) {
+            if (spores.remove(sporeSlot(sp.getThread()), sp)) {
+                emit(ModelEventType.SPORE_REMOVED, sp);
+            }
+        }
+        endBatch();
         return true;
     }
 
+    /**
+     * Helyben kicseréli a t1 szomszédot t2-re úgy, hogy a sokszög oldalának
+     * indexe változatlan marad.
+     *
+     * @param t1 A lecserélendő szomszéd.
+     * @param t2 Az új szomszéd.
+     */
     public void exchange(Tecton t1, Tecton t2) {
-        for (int i = 0; i < neighbors.size(); i++) {
-            if (neighbors.get(i) == t1) {
-                neighbors.set(i, t2);
-                break;
-            }
+        if (graph == null) {
+            return;
+        }
+        int newId = TectonGraph.NO_NEIGHBOR;
+        if (t2 != null) {
+            newId = graph.register(t2);
         }
+        graph.exchange(id, t1 == null ? TectonGraph.NO_NEIGHBOR : t1.id, newId);
     }
 
 }
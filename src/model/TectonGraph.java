@@ -0,0 +1,770 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A TectonGraph a játéktér szomszédsági gráfját tárolja tömörített sor (CSR)
+ * formában. Minden tekton egy sűrű, egész szám azonosítót kap, a szomszédok
+ * azonosítói pedig egyetlen közös int tömbben, soronként egymás után
+ * helyezkednek el.
+ * <p>
+ * Egy sor i. eleme a tekton sokszögének i. oldalához tartozó szomszéd, a
+ * {@link #NO_NEIGHBOR} érték pedig azt jelzi, hogy az adott oldalon nincs
+ * szomszéd (ez felel meg a korábbi listák null elemeinek). A sorok helyben
+ * módosíthatók, ha pedig egy sor kinövi a helyét, a tömb végére költözik; a
+ * felszabadult helyeket a gráf időnként tömörítéssel szünteti meg.
+ * <p>
+ * A szomszédság gyors ellenőrzéséhez minden sorhoz egy 64 bites lenyomat
+ * (bitset) tartozik, amelyben a szomszédok azonosítójának alsó 6 bitje szerinti
+ * bit van beállítva. A legtöbb nemleges válasz így egyetlen bitművelettel
+ * megadható, a pozitív találatot pedig a sor (a sokszög oldalainak száma)
+ * végigolvasása erősíti meg.
+ * <p>
+ * A beginParallel és endParallel között a gráf tektonjain egymást nem érintő
+ * lépések futhatnak párhuzamosan. Ilyenkor a több tektont átfogó szerkezetek
+ * (a foglaltsági és a felszívó bitset, a kettétörhető tektonok halmaza, az
+ * eseménybusz) írásai a lépés DeferredEffects gyűjtőjébe kerülnek, az
+ * elérhetőségi index pedig nem módosul.
+ */
+public class TectonGraph {
+
+    /**
+     * A sor azon elemeinek értéke, amelyekhez nem tartozik szomszédos tekton.
+     */
+    public static final int NO_NEIGHBOR = -1;
+
+    /**
+     * A kettétörhető tekton oldalainak legkisebb száma.
+     */
+    public static final int MIN_BREAK_EDGES = 4;
+
+    private Tecton[] tectons;
+    private int tectonCount;
+
+    private int[] rowStart;
+    private int[] rowLength;
+    private int[] rowCapacity;
+    private long[] signature;
+
+    private int[] edges;
+    private int edgeCount;
+    private int garbage;
+
+    private FungalThread[] threads;
+    private int threadCount;
+
+    private final HopIndex hops;
+    private final ModelEventBus events;
+    private final BitSet absorbing;
+
+    private int[] breakable;
+    private int[] breakablePos;
+    private int breakableCount;
+    private final BitSet retired;
+    private final BitSet occupied;
+    private boolean parallel;
+
+
+    /**
+     * Létrehoz egy üres gráfot.
+     */
+    public TectonGraph() {
+        tectons = new Tecton[16];
+        tectonCount = 0;
+        rowStart = new int[16];
+        rowLength = new int[16];
+        rowCapacity = new int[16];
+        signature = new long[16];
+        edges = new int[64];
+        edgeCount = 0;
+        garbage = 0;
+        threads = new FungalThread[4];
+        threadCount = 0;
+        hops = new HopIndex(this);
+        events = new ModelEventBus();
+        absorbing = new BitSet();
+        breakable = new int[16];
+        breakablePos = new int[16];
+        breakableCount = 0;
+        retired = new BitSet();
+        occupied = new BitSet();
+        parallel = false;
+    }
+
+
+    /**
+     * Felveszi a tektont a gráfba, és kioszt neki egy új azonosítót.
+     * Ha a tekton már ebben a gráfban van, a meglévő azonosítóját adja vissza.
+     *
+     * @param t A felveendő tekton.
+     * @return A tekton azonosítója.
+     */
+    public int register(Tecton t) {
+        if (t.getGraphIfBound() == this) {
+            return t.getId();
+        }
+        if (t.getGraphIfBound() != null) {
+            throw new IllegalStateException("A tekton már egy másik gráfhoz tartozik");
+        }
+
+        if (tectonCount == tectons.length) {
+            int cap = tectons.length * 2;
+            tectons = Arrays.copyOf(tectons, cap);
+            rowStart = Arrays.copyOf(rowStart, cap);
+            rowLength = Arrays.copyOf(rowLength, cap);
+            rowCapacity = Arrays.copyOf(rowCapacity, cap);
+            signature = Arrays.copyOf(signature, cap);
+            breakablePos = Arrays.copyOf(breakablePos, cap);
+        }
+
+        int id = tectonCount++;
+        tectons[id] = t;
+        rowStart[id] = edgeCount;
+        rowLength[id] = 0;
+        rowCapacity[id] = 0;
+        signature[id] = 0L;
+        breakablePos[id] = -1;
+        occupied.set(id, t.getInsect() != null);
+        t.bind(this, id);
+        return id;
+    }
+
+
+    /**
+     * Visszaadja az adott azonosítójú tektont.
+     *
+     * @param id A tekton azonosítója, vagy NO_NEIGHBOR.
+     * @return A tekton, vagy null, ha az azonosítóhoz nem tartozik tekton.
+     */
+    public Tecton getTecton(int id) {
+        if (id < 0 || id >= tectonCount) {
+            return null;
+        }
+        return tectons[id];
+    }
+
+
+    /**
+     * Felveszi a fonalat a gráfba, és kioszt neki egy kis, sűrű azonosítót,
+     * amely alapján a tektonok bitsetben tárolják a rajtuk lévő fonalakat.
+     * Ha a fonál már ebben a gráfban van, a meglévő azonosítóját adja vissza.
+     *
+     * @param f A felveendő fonál.
+     * @return A fonál azonosítója.
+     */
+    public int registerThread(FungalThread f) {
+        if (f.getGraph() == this) {
+            return f.getId();
+        }
+        if (f.getGraph() != null) {
+            throw new IllegalStateException("A fonál már egy másik gráfhoz tartozik");
+        }
+        if (parallel) {
+            throw new IllegalStateException("Párhuzamos végrehajtás alatt nem vehető fel új fonál");
+        }
+        if (threadCount == threads.length) {
+            threads = Arrays.copyOf(threads, threads.length * 2);
+        }
+        int tid = threadCount++;
+        threads[tid] = f;
+        f.bind(this, tid);
+        return tid;
+    }
+
+
+    /**
+     * Visszaadja az adott azonosítójú fonalat.
+     *
+     * @param tid A fonál azonosítója.
+     * @return A fonál, vagy null, ha az azonosítóhoz nem tartozik fonál.
+     */
+    public FungalThread getThread(int tid) {
+        if (tid < 0 || tid >= threadCount) {
+            return null;
+        }
+        return threads[tid];
+    }
+
+
+    /**
+     * Visszaadja a gráf eseménybuszát, amelyen a gráf tektonjain történt
+     * változások megfigyelhetők.
+     *
+     * @return A gráf eseménybusza.
+     */
+    public ModelEventBus getEvents() {
+        return events;
+    }
+
+
+    /**
+     * Visszaadja a gráf többlépéses elérhetőségi indexét. Az index a sorok
+     * változásakor magától frissül.
+     *
+     * @return A gráf elérhetőségi indexe.
+     */
+    public HopIndex getHopIndex() {
+        return hops;
+    }
+
+
+    /**
+     * Megkezdi a párhuzamos végrehajtást: a közös szerkezetek írásai ettől
+     * kezdve a lépések gyűjtőjébe kerülnek. A játék szálán kell hívni.
+     */
+    public void beginParallel() {
+        parallel = true;
+        events.setParallel(true);
+        hops.setFrozen(true);
+    }
+
+
+    /**
+     * Befejezi a párhuzamos végrehajtást. A gyűjtők ezután
+     * visszajátszhatók. A játék szálán kell hívni.
+     */
+    public void endParallel() {
+        parallel = false;
+        events.setParallel(false);
+        hops.setFrozen(false);
+    }
+
+
+    /**
+     * A tekton hívja, ha egy felszívó tektonra az első fonál rákerül, vagy
+     * róla az utolsó fonál lekerül.
+     *
+     * @param id     A felszívó tekton azonosítója.
+     * @param active true, ha a tektonon van fonál.
+     */
+    void setAbsorbing(int id, boolean active) {
+        if (parallel) {
+            DeferredEffects.current().defer(() -> setAbsorbing(id, active));
+            return;
+        }
+        absorbing.set(id, active);
+    }
+
+
+    /**
+     * Lefuttatja a felszívást a gráf összes olyan felszívó tektonján, amelyen
+     * fonál van. A tektonok fonalait előbb mind leveszi, majd minden érintett
+     * fonál egyszer vágja le a gombatesthez már nem kapcsolódó részeit; a
+     * levágandó részeket a fonalak párhuzamosan számolják ki.
+     * <p>
+     * A művelet csak a fonalat tartó felszívó tektonokat érinti, a gráf többi
+     * tektonját nem nézi végig.
+     */
+    public void absorbAll() {
+        events.beginBatch();
+        BitSet affected = new BitSet();
+        BitSet active = (BitSet) absorbing.clone();
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            Tecton t = tectons[id];
+            List<FungalThread> fungal = t.getThreads();
+            for (FungalThread f : fungal) {
+                affected.set(f.getId());
+                t.unlinkThread(f);
+            }
+            t.emit(ModelEventType.TECTON_ABSORBED, null);
+        }
+
+        List<FungalThread> affectedThreads = new ArrayList<>();
+        for (int tid = affected.nextSetBit(0); tid >= 0; tid = affected.nextSetBit(tid + 1)) {
+            affectedThreads.add(threads[tid]);
+        }
+        ThreadCleanup.pruneAll(affectedThreads);
+        events.endBatch();
+    }
+
+
+    /**
+     * Újraértékeli, hogy a tekton kettétörhető-e, és ennek megfelelően
+     * felveszi a kettétörhető tektonok halmazába vagy kiveszi belőle. A
+     * tekton akkor törhető, ha még nem tört ketté, legalább négy oldala van,
+     * és nincs rajta gombatest.
+     *
+     * @param id A tekton azonosítója.
+     */
+    void updateBreakable(int id) {
+        if (parallel) {
+            DeferredEffects.current().defer(() -> updateBreakable(id));
+            return;
+        }
+        Tecton t = tectons[id];
+        boolean can = !retired.get(id) && rowLength[id] >= MIN_BREAK_EDGES && t.getMushroom() == null;
+        int pos = breakablePos[id];
+        if (can && pos < 0) {
+            if (breakableCount == breakable.length) {
+                breakable = Arrays.copyOf(breakable, breakable.length * 2);
+            }
+            breakable[breakableCount] = id;
+            breakablePos[id] = breakableCount++;
+        } else if (!can && pos >= 0) {
+            // az utolsó elemet a kivett helyére teszem
+            int last = breakable[--breakableCount];
+            breakable[pos] = last;
+            breakablePos[last] = pos;
+            breakablePos[id] = -1;
+        }
+    }
+
+
+    /**
+     * Megjelöli a tektont kettétörtként: a tekton a továbbiakban nem része a
+     * játéktérnek, ezért nem is törhető.
+     *
+     * @param id A kettétört tekton azonosítója.
+     */
+    void retire(int id) {
+        retired.set(id);
+        updateBreakable(id);
+    }
+
+
+    /**
+     * Megadja, hogy a tekton a kettétörhető tektonok halmazában van-e.
+     *
+     * @param id A tekton azonosítója.
+     * @return true, ha a tekton kettétörhető.
+     */
+    public boolean isBreakable(int id) {
+        return id >= 0 && id < tectonCount && breakablePos[id] >= 0;
+    }
+
+
+    /**
+     * Megadja, hogy a tekton már kettétört-e.
+     *
+     * @param id A tekton azonosítója.
+     * @return true, ha a tekton kettétört.
+     */
+    public boolean isRetired(int id) {
+        return retired.get(id);
+    }
+
+
+    /**
+     * Visszaadja a kettétörhető tektonok számát.
+     *
+     * @return A kettétörhető tektonok száma.
+     */
+    public int breakableCount() {
+        return breakableCount;
+    }
+
+
+    /**
+     * Visszaadja a kettétörhető tektonok közül a k. tektont. A sorrend nem
+     * rögzített, de egy egyenletes eloszlású k egyenletes eloszlású tektont ad.
+     *
+     * @param k Az index, 0 és breakableCount() - 1 között.
+     * @return A kettétörhető tekton.
+     */
+    public Tecton getBreakable(int k) {
+        if (k < 0 || k >= breakableCount) {
+            throw new IndexOutOfBoundsException(k);
+        }
+        return tectons[breakable[k]];
+    }
+
+
+    /**
+     * A tekton hívja, ha rovar került rá, vagy lekerült róla.
+     *
+     * @param id       A tekton azonosítója.
+     * @param occupied true, ha a tektonon rovar van.
+     */
+    void setOccupied(int id, boolean occupied) {
+        if (parallel) {
+            DeferredEffects.current().defer(() -> setOccupied(id, occupied));
+            return;
+        }
+        this.occupied.set(id, occupied);
+    }
+
+
+    /**
+     * Megadja, hogy a tektonon van-e rovar.
+     *
+     * @param id A tekton azonosítója.
+     * @return true, ha a tektonon rovar van.
+     */
+    public boolean isOccupied(int id) {
+        return id >= 0 && occupied.get(id);
+    }
+
+
+    /**
+     * Visszaadja a tekton sorának első olyan oldalát, amelyen rovar nélküli
+     * szomszéd van.
+     *
+     * @param id A tekton azonosítója.
+     * @return Az oldal indexe, vagy -1, ha nincs szabad szomszéd.
+     */
+    public int firstFreeNeighbor(int id) {
+        int len = rowLength[id];
+        for (int base = 0; base < len; base += 64) {
+            long mask = freeMask(id, base);
+            if (mask != 0) {
+                return base + Long.numberOfTrailingZeros(mask);
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Megszámolja a tekton sorában azokat az oldalakat, amelyeken rovar
+     * nélküli szomszéd van.
+     *
+     * @param id A tekton azonosítója.
+     * @return A szabad szomszédos oldalak száma.
+     */
+    public int freeNeighborCount(int id) {
+        int len = rowLength[id];
+        int count = 0;
+        for (int base = 0; base < len; base += 64) {
+            count += Long.bitCount(freeMask(id, base));
+        }
+        return count;
+    }
+
+
+    /**
+     * A sor base-től kezdődő, legfeljebb 64 oldalát egy szóba gyűjti: a k. bit
+     * akkor áll be, ha a base + k. oldalon rovar nélküli szomszéd van. A
+     * keresés és a számlálás ezután egyetlen bitművelettel elvégezhető.
+     */
+    private long freeMask(int id, int base) {
+        int start = rowStart[id] + base;
+        int end = rowStart[id] + Math.min(rowLength[id], base + 64);
+        long mask = 0L;
+        for (int i = start; i < end; i++) {
+            int n = edges[i];
+            if (n != NO_NEIGHBOR && !occupied.get(n)) {
+                mask |= 1L << (i - start);
+            }
+        }
+        return mask;
+    }
+
+
+    /**
+     * Visszaadja a valaha kiosztott azonosítók számát, vagyis az azonosítók
+     * felső (kizárólagos) korlátját.
+     *
+     * @return Az azonosítók felső korlátja.
+     */
+    public int size() {
+        return tectonCount;
+    }
+
+
+    /**
+     * Visszaadja a tekton sorának hosszát, vagyis a sokszög oldalainak számát
+     * (a szomszéd nélküli oldalakat is beleértve).
+     *
+     * @param id A tekton azonosítója.
+     * @return A sor hossza.
+     */
+    public int degree(int id) {
+        return rowLength[id];
+    }
+
+
+    /**
+     * Visszaadja a tekton sorának adott indexű elemét.
+     *
+     * @param id   A tekton azonosítója.
+     * @param slot A sokszög oldalának indexe.
+     * @return A szomszéd azonosítója, vagy NO_NEIGHBOR.
+     */
+    public int neighborAt(int id, int slot) {
+        return edges[rowStart[id] + slot];
+    }
+
+
+    /**
+     * Ellenőrzi, hogy a b azonosítójú tekton szerepel-e az a azonosítójú tekton
+     * sorában.
+     *
+     * @param a A vizsgált tekton azonosítója.
+     * @param b A keresett szomszéd azonosítója.
+     * @return true, ha b szomszédja a-nak, különben false.
+     */
+    public boolean isNeighbor(int a, int b) {
+        if (a < 0 || b < 0 || (signature[a] & (1L << b)) == 0) {
+            return false;
+        }
+        int start = rowStart[a];
+        int end = start + rowLength[a];
+        for (int i = start; i < end; i++) {
+            if (edges[i] == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Lecseréli a tekton teljes sorát a megadott lista alapján. A lista null
+     * elemei szomszéd nélküli oldalakat jelölnek. A listában szereplő, még nem
+     * regisztrált tektonokat a gráf felveszi.
+     *
+     * @param id   A tekton azonosítója.
+     * @param list A szomszédok listája, a sokszög oldalainak sorrendjében.
+     */
+    public void setRow(int id, List<Tecton> list) {
+        int[] row = toIds(list);
+        reserve(id, row.length, false);
+        System.arraycopy(row, 0, edges, rowStart[id], row.length);
+        rowLength[id] = row.length;
+        updateSignature(id);
+    }
+
+
+    /**
+     * A tekton sorának végéhez fűzi a megadott lista elemeit.
+     *
+     * @param id   A tekton azonosítója.
+     * @param list A hozzáfűzendő szomszédok listája.
+     */
+    public void appendToRow(int id, List<Tecton> list) {
+        int[] row = toIds(list);
+        int len = rowLength[id];
+        reserve(id, len + row.length, true);
+        System.arraycopy(row, 0, edges, rowStart[id] + len, row.length);
+        rowLength[id] = len + row.length;
+        updateSignature(id);
+    }
+
+
+    /**
+     * Eltávolítja a sor első olyan elemét, amelynek értéke a megadott
+     * azonosító; a mögötte álló elemek eggyel előrébb kerülnek.
+     *
+     * @param id       A tekton azonosítója.
+     * @param neighbor Az eltávolítandó szomszéd azonosítója, vagy NO_NEIGHBOR.
+     * @return true, ha volt ilyen elem, különben false.
+     */
+    public boolean removeFromRow(int id, int neighbor) {
+        int start = rowStart[id];
+        int end = start + rowLength[id];
+        for (int i = start; i < end; i++) {
+            if (edges[i] == neighbor) {
+                System.arraycopy(edges, i + 1, edges, i, end - i - 1);
+                rowLength[id]--;
+                updateSignature(id);
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Helyben kicseréli a sor első olyan elemét, amelynek értéke oldId, a
+     * newId értékre. Az oldal indexe (és így a sokszög oldalának jelentése)
+     * nem változik.
+     *
+     * @param id    A tekton azonosítója.
+     * @param oldId A lecserélendő szomszéd azonosítója.
+     * @param newId Az új szomszéd azonosítója.
+     * @return true, ha a csere megtörtént, különben false.
+     */
+    public boolean exchange(int id, int oldId, int newId) {
+        int start = rowStart[id];
+        int end = start + rowLength[id];
+        for (int i = start; i < end; i++) {
+            if (edges[i] == oldId) {
+                edges[i] = newId;
+                updateSignature(id);
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Kettéosztja a tekton sorát két új tekton között. A sor első fele (a
+     * sokszög oldalainak első fele) a left, a második fele a right tektoné
+     * lesz, és a két darab egymás szomszédja lesz: a left sorának végére a
+     * right, a right sorának elejére a left kerül. A régi tekton szomszédainak
+     * sorában a régi tekton helyére a megfelelő darab kerül, az oldal indexe
+     * nem változik. A régi tekton sora változatlan marad.
+     * <p>
+     * A művelet a tekton és a szomszédai sorainak hosszával arányos időt
+     * igényel, a sorokat közvetlenül az éltömbben állítja elő.
+     *
+     * @param id    A kettétört tekton azonosítója.
+     * @param left  Az első darab azonosítója, üres sorral.
+     * @param right A második darab azonosítója, üres sorral.
+     */
+    void split(int id, int left, int right) {
+        int len = rowLength[id];
+        int centre = len / 2;
+
+        // a left sorát előbb töltöm ki, mert a right helyfoglalása tömörítheti
+        // az éltömböt, ami a még üres sorok helyét elengedné
+        reserve(left, centre + 1, false);
+        System.arraycopy(edges, rowStart[id], edges, rowStart[left], centre);
+        edges[rowStart[left] + centre] = right;
+        rowLength[left] = centre + 1;
+        updateSignature(left);
+
+        reserve(right, len - centre + 1, false);
+        edges[rowStart[right]] = left;
+        System.arraycopy(edges, rowStart[id] + centre, edges, rowStart[right] + 1, len - centre);
+        rowLength[right] = len - centre + 1;
+        updateSignature(right);
+
+        for (int k = 0; k < len; k++) {
+            int n = edges[rowStart[id] + k];
+            if (n != NO_NEIGHBOR) {
+                exchange(n, id, k < centre ? left : right);
+            }
+        }
+    }
+
+
+    /**
+     * Átveszi egy másik gráf összes tektonját, új azonosítókat osztva ki nekik.
+     * Akkor van rá szükség, ha két, egymástól függetlenül felépített gráf
+     * tektonjai szomszédosak lesznek.
+     *
+     * @param other Az átvett gráf, amely a művelet után üres lesz.
+     */
+    void absorbGraph(TectonGraph other) {
+        if (other == this) {
+            return;
+        }
+        if (other.threadCount > 0 || threadCount > 0) {
+            throw new IllegalStateException("Fonalakat tartalmazó gráfok nem vonhatók össze");
+        }
+        int n = other.tectonCount;
+        int[] map = new int[n];
+        for (int i = 0; i < n; i++) {
+            Tecton t = other.tectons[i];
+            t.bind(null, -1);
+            map[i] = register(t);
+            if (other.retired.get(i)) {
+                retired.set(map[i]);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int id = map[i];
+            int len = other.rowLength[i];
+            reserve(id, len, false);
+            for (int k = 0; k < len; k++) {
+                int nb = other.edges[other.rowStart[i] + k];
+                edges[rowStart[id] + k] = nb == NO_NEIGHBOR ? NO_NEIGHBOR : map[nb];
+            }
+            rowLength[id] = len;
+            updateSignature(id);
+        }
+        other.tectons = new Tecton[16];
+        other.tectonCount = 0;
+        other.hops.clear();
+        other.breakableCount = 0;
+        other.retired.clear();
+        other.occupied.clear();
+    }
+
+
+    /**
+     * A lista tektonjait azonosítókká alakítja, a még nem regisztrált
+     * tektonokat felvéve a gráfba.
+     */
+    private int[] toIds(List<Tecton> list) {
+        int[] row = new int[list.size()];
+        for (int i = 0; i < row.length; i++) {
+            Tecton t = list.get(i);
+            if (t == null) {
+                row[i] = NO_NEIGHBOR;
+            } else {
+                if (t.getGraphIfBound() != this) {
+                    if (t.getGraphIfBound() != null) {
+                        absorbGraph(t.getGraphIfBound());
+                    } else {
+                        register(t);
+                    }
+                }
+                row[i] = t.getId();
+            }
+        }
+        return row;
+    }
+
+
+    /**
+     * Gondoskodik róla, hogy a sor legalább len elemet elférjen. Ha a sor nem
+     * fér el a helyén, a tömb végére költözik.
+     */
+    private void reserve(int id, int len, boolean keep) {
+        if (len <= rowCapacity[id]) {
+            return;
+        }
+        if (edgeCount + len > edges.length) {
+            compact();
+            if (edgeCount + len > edges.length) {
+                edges = Arrays.copyOf(edges, Math.max(edges.length * 2, edgeCount + len));
+            }
+        }
+        int start = edgeCount;
+        if (keep) {
+            System.arraycopy(edges, rowStart[id], edges, start, rowLength[id]);
+        }
+        garbage += rowCapacity[id];
+        rowStart[id] = start;
+        rowCapacity[id] = len;
+        edgeCount += len;
+    }
+
+
+    /**
+     * Megszünteti a költözések során keletkezett lyukakat az éltömbben, ha
+     * azok elérik a tömb felét.
+     */
+    private void compact() {
+        if (garbage * 2 < edgeCount) {
+            return;
+        }
+        int[] packed = new int[Math.max(64, edgeCount - garbage + 16)];
+        int pos = 0;
+        for (int id = 0; id < tectonCount; id++) {
+            System.arraycopy(edges, rowStart[id], packed, pos, rowLength[id]);
+            rowStart[id] = pos;
+            rowCapacity[id] = rowLength[id];
+            pos += rowLength[id];
+        }
+        edges = packed;
+        edgeCount = pos;
+        garbage = 0;
+    }
+
+
+    /**
+     * Újraszámolja a sor szomszédsági lenyomatát, jelzi a sor változását az
+     * elérhetőségi indexnek, és frissíti a tekton törhetőségét.
+     */
+    private void updateSignature(int id) {
+        long sig = 0L;
+        int start = rowStart[id];
+        int end = start + rowLength[id];
+        for (int i = start; i < end; i++) {
+            if (edges[i] != NO_NEIGHBOR) {
+                sig |= 1L << edges[i];
+            }
+        }
+        signature[id] = sig;
+        hops.rowChanged(id);
+        updateBreakable(id);
+    }
+
+}
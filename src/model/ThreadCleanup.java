@@ -0,0 +1,89 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A ThreadCleanup több gombafonál felesleges részeinek levágását végzi el
+ * egyszerre, például tektontörés vagy felszívás után.
+ * <p>
+ * A levágás két lépésből áll. Előbb minden fonál a saját összefüggőségi
+ * struktúrájából meghatározza, mely tektonokról kell lekerülnie; ez a lépés
+ * csak a fonál saját adatait módosítja, a tektonokat és a gráfot csak
+ * olvassa, ezért a fonalakra párhuzamosan, egy ForkJoinPool szálain fut. A
+ * második lépés a tektonokról való levételt már egyetlen szálon, a fonalak
+ * listabeli sorrendjében végzi el, így az eredmény azonos azzal, mintha a
+ * fonalak egymás után hívták volna a deleteUnnecessaryThreads metódust.
+ */
+final class ThreadCleanup {
+
+    /**
+     * Ennyi fonál alatt a párhuzamosítás többe kerül, mint amennyit nyer.
+     */
+    private static final int PARALLEL_THRESHOLD = 2;
+
+
+    private ThreadCleanup() {
+    }
+
+
+    /**
+     * Levágja a fonalak gombatesthez már nem kapcsolódó részeit.
+     *
+     * @param threads Az érintett fonalak, a levágás sorrendjében.
+     */
+    static void pruneAll(List<FungalThread> threads) {
+        int n = threads.size();
+        if (n < PARALLEL_THRESHOLD) {
+            for (FungalThread f : threads) {
+                f.deleteUnnecessaryThreads();
+            }
+            return;
+        }
+
+        List<List<Tecton>> pruned = new ArrayList<>(Collections.nCopies(n, null));
+        ForkJoinPool.commonPool().invoke(new PruneTask(threads, pruned, 0, n));
+
+        // a levételek sorrendje megegyezik a soros futáséval
+        for (int k = 0; k < n; k++) {
+            threads.get(k).applyPrune(pruned.get(k));
+        }
+    }
+
+
+    /**
+     * A fonalak egy szakaszára kiszámolja a levágandó tektonokat, a szakaszt
+     * szükség esetén kettéosztva.
+     */
+    private static class PruneTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<FungalThread> threads;
+        private final transient List<List<Tecton>> pruned;
+        private final int lo;
+        private final int hi;
+
+        PruneTask(List<FungalThread> threads, List<List<Tecton>> pruned, int lo, int hi) {
+            this.threads = threads;
+            this.pruned = pruned;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                pruned.set(lo, threads.get(lo).computePrune());
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new PruneTask(threads, pruned, lo, mid),
+                    new PruneTask(threads, pruned, mid, hi));
+        }
+    }
+
+}
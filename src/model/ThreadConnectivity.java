@@ -0,0 +1,332 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A ThreadConnectivity egy gombafonál összefüggő részeit tartja nyilván a
+ * tektonok gráfbeli azonosítói szerint, hogy a fonál felesleges részeit ne
+ * kelljen minden alkalommal a teljes fonál bejárásával megkeresni.
+ * <p>
+ * A komponenseket egy diszjunkt-halmaz (union-find) struktúra írja le, amelyben
+ * minden komponens tagjai egy körkörös láncolt listát is alkotnak, így egy
+ * komponens tagjai a méretével arányos időben felsorolhatók. Új tekton
+ * hozzáadásakor a struktúra egyszerűen összevonja a szomszédos komponenseket.
+ * Tekton eltávolításakor csak az érintett komponenst jelöli meg; ezt a
+ * következő lekérdezés helyben, a komponens tagjaiból újraépíti.
+ * <p>
+ * Minden komponens egy tanút (witness) is tárol: egy olyan tektont, amelyen a
+ * fonálhoz kapcsolódó gombatest van. Amíg a tanú érvényes, a komponens
+ * megmarad, és a lekérdezés a keresés költségével (közel konstans időben)
+ * válaszol.
+ */
+class ThreadConnectivity {
+
+    private static final int NONE = -1;
+
+    private final FungalThread thread;
+    private TectonGraph graph;
+
+    private int[] parent;
+    private int[] size;
+    private int[] next;
+    private int[] prev;
+    private int[] witness;
+
+    private final BitSet members;
+    private final BitSet linked;
+    private final BitSet reps;
+    private final BitSet dirty;
+
+
+    /**
+     * Létrehozza a megadott fonál összefüggőségi struktúráját.
+     *
+     * @param thread A fonál, amelynek részeit a struktúra nyilvántartja.
+     */
+    ThreadConnectivity(FungalThread thread) {
+        this.thread = thread;
+        graph = null;
+        parent = new int[0];
+        size = new int[0];
+        next = new int[0];
+        prev = new int[0];
+        witness = new int[0];
+        members = new BitSet();
+        linked = new BitSet();
+        reps = new BitSet();
+        dirty = new BitSet();
+    }
+
+
+    /**
+     * Felveszi a tektont a fonál részei közé, és összevonja azokkal a
+     * komponensekkel, amelyekkel a tekton szomszédos.
+     *
+     * @param t A fonálhoz került tekton.
+     */
+    void add(Tecton t) {
+        if (!bindGraph(t)) {
+            return;
+        }
+        int v = t.getId();
+        if (members.get(v)) {
+            return;
+        }
+        if (linked.get(v)) {
+            // korábban eltávolított, még újra nem épített tag
+            repair(find(v));
+        }
+        ensureCapacity(v + 1);
+        makeSet(v);
+        members.set(v);
+
+        int degree = graph.degree(v);
+        for (int i = 0; i < degree; i++) {
+            int n = graph.neighborAt(v, i);
+            if (n != TectonGraph.NO_NEIGHBOR && members.get(n)) {
+                union(v, n);
+            }
+        }
+    }
+
+
+    /**
+     * Eltávolítja a tektont a fonál részei közül. Az érintett komponenst csak
+     * megjelöli, az újraépítés a következő lekérdezéskor történik.
+     *
+     * @param t A fonálról levett tekton.
+     */
+    void remove(Tecton t) {
+        if (t == null || t.getGraphIfBound() != graph || graph == null) {
+            return;
+        }
+        int v = t.getId();
+        if (!members.get(v)) {
+            return;
+        }
+        members.clear(v);
+        dirty.set(find(v));
+    }
+
+
+    /**
+     * Eldobja a teljes nyilvántartást, és a megadott tektonokból újraépíti.
+     *
+     * @param tectons A fonálhoz tartozó tektonok.
+     */
+    void rebuild(List<Tecton> tectons) {
+        graph = null;
+        members.clear();
+        linked.clear();
+        reps.clear();
+        dirty.clear();
+        for (Tecton t : tectons) {
+            add(t);
+        }
+    }
+
+
+    /**
+     * Megadja, hogy a tekton a fonál olyan komponensében van-e, amelyhez
+     * gombatest kapcsolódik.
+     *
+     * @param t A vizsgált tekton.
+     * @return true, ha a tekton a fonál része, és a komponensén van gombatest.
+     */
+    boolean isAttached(Tecton t) {
+        if (t == null || t.getGraphIfBound() != graph || graph == null || !members.get(t.getId())) {
+            return false;
+        }
+        int rep = find(t.getId());
+        if (dirty.get(rep)) {
+            repair(rep);
+            rep = find(t.getId());
+        }
+        return validateWitness(rep);
+    }
+
+
+    /**
+     * Újraépíti a megjelölt komponenseket, majd kiveszi a struktúrából azokat,
+     * amelyekhez már nem kapcsolódik gombatest.
+     *
+     * @return A kivett, gombatesthez nem kapcsolódó tektonok listája.
+     */
+    List<Tecton> prune() {
+        List<Tecton> pruned = new ArrayList<>();
+        if (graph == null) {
+            return pruned;
+        }
+
+        while (!dirty.isEmpty()) {
+            repair(dirty.nextSetBit(0));
+        }
+
+        for (int rep = reps.nextSetBit(0); rep >= 0; rep = reps.nextSetBit(rep + 1)) {
+            if (!validateWitness(rep)) {
+                int v = rep;
+                do {
+                    int nv = next[v];
+                    if (members.get(v)) {
+                        pruned.add(graph.getTecton(v));
+                    }
+                    members.clear(v);
+                    linked.clear(v);
+                    v = nv;
+                } while (v != rep);
+                reps.clear(rep);
+            }
+        }
+        return pruned;
+    }
+
+
+    /**
+     * A fonál első tektonjánál rögzíti a gráfot. Más gráfba került tekton
+     * esetén (például gráfok összevonása után) a struktúrát a fonál
+     * tektonjaiból újraépíti.
+     */
+    private boolean bindGraph(Tecton t) {
+        if (t == null) {
+            return false;
+        }
+        TectonGraph g = t.getGraph();
+        if (graph == null) {
+            graph = g;
+        } else if (graph != g) {
+            List<Tecton> tectons = thread.getTectons();
+            graph = null;
+            rebuild(tectons);
+            if (graph != g) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Egy komponenst a még élő tagjaiból újraépít: a tagokat önálló
+     * halmazokká alakítja, majd a szomszédos tagokat újra összevonja.
+     */
+    private void repair(int rep) {
+        dirty.clear(rep);
+        reps.clear(rep);
+
+        List<Integer> live = new ArrayList<>();
+        int v = rep;
+        do {
+            int nv = next[v];
+            linked.clear(v);
+            if (members.get(v)) {
+                live.add(v);
+            }
+            v = nv;
+        } while (v != rep);
+
+        for (int node : live) {
+            makeSet(node);
+        }
+        for (int node : live) {
+            int degree = graph.degree(node);
+            for (int i = 0; i < degree; i++) {
+                int n = graph.neighborAt(node, i);
+                if (n != TectonGraph.NO_NEIGHBOR && members.get(n)) {
+                    union(node, n);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Ellenőrzi a komponens tanúját, és ha az már nem érvényes, a komponens
+     * tagjai között újat keres.
+     */
+    private boolean validateWitness(int rep) {
+        int w = witness[rep];
+        if (w != NONE && members.get(w) && graph.getTecton(w).isConnected(thread)) {
+            return true;
+        }
+        int v = rep;
+        do {
+            if (members.get(v) && graph.getTecton(v).isConnected(thread)) {
+                witness[rep] = v;
+                return true;
+            }
+            v = next[v];
+        } while (v != rep);
+        witness[rep] = NONE;
+        return false;
+    }
+
+
+    private void makeSet(int v) {
+        parent[v] = v;
+        size[v] = 1;
+        next[v] = v;
+        prev[v] = v;
+        linked.set(v);
+        reps.set(v);
+        witness[v] = graph.getTecton(v).isConnected(thread) ? v : NONE;
+    }
+
+
+    private int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return;
+        }
+        if (size[ra] < size[rb]) {
+            int tmp = ra;
+            ra = rb;
+            rb = tmp;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+
+        // a két körkörös lista összefűzése
+        int na = next[ra];
+        int nb = next[rb];
+        next[ra] = nb;
+        prev[nb] = ra;
+        next[rb] = na;
+        prev[na] = rb;
+
+        reps.clear(rb);
+        if (dirty.get(rb)) {
+            dirty.clear(rb);
+            dirty.set(ra);
+        }
+        if (witness[ra] == NONE) {
+            witness[ra] = witness[rb];
+        }
+    }
+
+
+    private void ensureCapacity(int n) {
+        if (n <= parent.length) {
+            return;
+        }
+        int cap = Math.max(n, parent.length * 2);
+        parent = Arrays.copyOf(parent, cap);
+        size = Arrays.copyOf(size, cap);
+        next = Arrays.copyOf(next, cap);
+        prev = Arrays.copyOf(prev, cap);
+        witness = Arrays.copyOf(witness, cap);
+    }
+
+}
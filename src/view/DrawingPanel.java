@@ -2,10 +2,13 @@ package view;
 
 import controller.Controller;
 import controller.FungusPlayer;
+import controller.GameState;
 import controller.InsectPlayer;
+import controller.LegalActions;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +38,11 @@ public class DrawingPanel extends JPanel {
     private GTecton selectedSource;
     private GTecton targetSource;
 
+    private LegalActions highlightLegal;
+    private GameState highlightState;
+    private GTecton highlightSource;
+    private long highlightVersion;
+
     private double currentWidth;
     private double currentHeight;
 
@@ -61,6 +69,10 @@ public class DrawingPanel extends JPanel {
 
         selectedSource = null;
         targetSource = null;
+        highlightLegal = null;
+        highlightState = null;
+        highlightSource = null;
+        highlightVersion = -1;
 
         addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
@@ -300,6 +312,7 @@ public class DrawingPanel extends JPanel {
      */
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        updateHighlights();
 
         for (Map.Entry<Tecton, GTecton> entry : tectCombo.entrySet()) {
             GTecton val = entry.getValue();
@@ -329,6 +342,72 @@ public class DrawingPanel extends JPanel {
     }
 
 
+    /**
+     * Kiemeli azokat a tektonokat, amelyekre a játék aktuális állapotában
+     * megkezdett lépés megtehető. A célpontokat a Controller lehetséges
+     * lépéseket számoló generátora adja. A kiemelés csak akkor számolódik
+     * újra, ha a játékállapot, a kijelölés vagy a játéktér megváltozott.
+     */
+    private void updateHighlights() {
+        LegalActions legal = controller.getLegalActions();
+        GameState state = gPanel.getState();
+        if (legal == highlightLegal && state == highlightState && selectedSource == highlightSource
+                && legal.getVersion() == highlightVersion) {
+            return;
+        }
+        highlightLegal = legal;
+        highlightState = state;
+        highlightSource = selectedSource;
+        highlightVersion = legal.getVersion();
+
+        for (GTecton gt : tectCombo.values()) {
+            gt.setHighlighted(false);
+        }
+
+        List<Tecton> targets = new ArrayList<>();
+        Tecton source = selectedSource == null ? null : (Tecton) selectedSource.getTecton();
+
+        switch (state) {
+            case MOVEINSECT:
+                if (source != null && source.getInsect() != null)
+                    targets = legal.moveTargets(source.getInsect());
+                break;
+            case CUTTHREAD:
+                if (source != null && source.getInsect() != null)
+                    targets = legal.cutTargets(source.getInsect());
+                break;
+            case SHOOTSPORE:
+                if (source != null && source.getMushroom() != null)
+                    targets = legal.shootTargets(source.getMushroom());
+                break;
+            case BRANCHTHREAD:
+                if (controller.getCurrentPlayer() instanceof FungusPlayer fp)
+                    targets = legal.branchTargets(fp);
+                break;
+            case GROWMUSHROOM:
+                if (controller.getCurrentPlayer() instanceof FungusPlayer fp)
+                    targets = legal.growTargets(fp);
+                break;
+            case EATINSECT:
+                if (controller.getCurrentPlayer() instanceof FungusPlayer fp) {
+                    for (Insect i : insCombo.keySet()) {
+                        if (legal.canEat(fp, i))
+                            targets.add(i.getPosition());
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        for (Tecton t : targets) {
+            GTecton gt = tectCombo.get(t);
+            if (gt != null)
+                gt.setHighlighted(true);
+        }
+    }
+
+
     /**
      * Kezeli az egérkattintás eseményeket és a játékmenet állapotának megfelelő műveletet hajt végre.
      *
@@ -408,7 +487,7 @@ public class DrawingPanel extends JPanel {
                     break;
 
                 case PUTFIRSTMUSHROOM:
-                    int rand = gPanel.randomize() % 2;
+                    int rand = controller.randomize(2);
                     if (rand == 0) {
                         if (controller.putFirstMushroom("ShortLifeThread", (Tecton) selected.getTecton())) {
                             gPanel.showInformation("ShortLifeThread típusú gombafonál jött létre");
@@ -467,23 +546,20 @@ public class DrawingPanel extends JPanel {
 
                     String sporesInfoStr = sporesInfo.length() > 0 ? sporesInfo.toString() : "-";
 
-                    List<FungalThread> threads = tecton.getThreads();
                     StringBuilder threadsInfo = new StringBuilder();
-                    if (threads != null && !threads.isEmpty()) {
-                        for (FungalThread thread : threads) {
-                            FungusPlayer threadPlayer = controller.getThreadPlayer(thread);
-                            if (threadPlayer != null) {
-                                Color playerColor = gPanel.returnColor(threadPlayer);
-                                String colorName = getColorName(playerColor);
-                                if (threadsInfo.length() > 0) {
-                                    threadsInfo.append(", ");
-                                    threadsInfo.append(colorName);
-                                } else if (threadsInfo.length() == 0) {
-                                    threadsInfo.append(colorName);
-                                }
+                    tecton.forEachThread(thread -> {
+                        FungusPlayer threadPlayer = controller.getThreadPlayer(thread);
+                        if (threadPlayer != null) {
+                            Color playerColor = gPanel.returnColor(threadPlayer);
+                            String colorName = getColorName(playerColor);
+                            if (threadsInfo.length() > 0) {
+                                threadsInfo.append(", ");
+                                threadsInfo.append(colorName);
+                            } else if (threadsInfo.length() == 0) {
+                                threadsInfo.append(colorName);
                             }
                         }
-                    }
+                    });
 
                     String threadsInfoStr = threadsInfo.length() > 0 ? threadsInfo.toString() : "-";
 
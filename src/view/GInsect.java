@@ -1,7 +1,6 @@
 package view;
 
 import controller.Controller;
-import controller.InsectPlayer;
 import controller.Player;
 
 import java.awt.Color;
@@ -76,15 +75,7 @@ public class GInsect {
         Graphics2D g2 = (Graphics2D) g;
         Point center = drawingPanel.getGTecton(insect.getPosition()).getCenter();
 
-        InsectPlayer iPlayer = null;
-        for (int i = 0; i < controller.getInsectPlayers().size(); i++) {
-            for (int j = 0; j < controller.getInsectPlayers().get(i).getInsects().size(); j++) {
-                if (controller.getInsectPlayers().get(i).getInsects().get(j).getInsect() == insect) {
-                    iPlayer = controller.getInsectPlayers().get(i);
-                    break;
-                }
-            }
-        }
+        Player iPlayer = controller.getOwner(insect);
 
         if (iPlayer == null) {
             return;
@@ -1,7 +1,6 @@
 package view;
 
 import controller.Controller;
-import controller.FungusPlayer;
 import controller.Player;
 
 import java.awt.Color;
@@ -74,15 +73,7 @@ public class GMushroom {
     public void draw(Graphics g, Controller controller) {
         Graphics2D g2 = (Graphics2D) g;
         Point center = drawingPanel.getGTecton(m.getPosition()).getCenter();
-        FungusPlayer fPlayer = null;
-        for (int i = 0; i < controller.getFungusPlayers().size(); i++) {
-            for (int j = 0; j < controller.getFungusPlayers().get(i).getMushrooms().size(); j++) {
-                if (controller.getFungusPlayers().get(i).getMushrooms().get(j).getMushroom() == m) {
-                    fPlayer = controller.getFungusPlayers().get(i);
-                    break;
-                }
-            }
-        }
+        Player fPlayer = controller.getOwner(m);
 
         if (fPlayer == null) {
             return;
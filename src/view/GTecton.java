@@ -14,14 +14,11 @@ import java.awt.Stroke;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map.Entry;
 import javax.imageio.ImageIO;
 
 import model.FungalThread;
 import model.ITectonView;
-import model.Spore;
 import model.Tecton;
 
 
@@ -32,6 +29,7 @@ import model.Tecton;
  */
 public class GTecton extends Polygon {
     private boolean selected = false;
+    private boolean highlighted = false;
     private ITectonView tecton;
     private int lineCount;
     private DrawingPanel drawingPanel;
@@ -171,6 +169,26 @@ public class GTecton extends Polygon {
     }
 
 
+    /**
+     * Ellenőrzi, hogy a tekton ki van-e emelve lehetséges célpontként.
+     *
+     * @return true, ha a tekton ki van emelve, különben false
+     */
+    public boolean isHighlighted() {
+        return highlighted;
+    }
+
+
+    /**
+     * Beállítja, hogy a tekton ki legyen-e emelve lehetséges célpontként.
+     *
+     * @param b Igaz, ha a tektonra az aktuális lépés megtehető.
+     */
+    public void setHighlighted(boolean b) {
+        highlighted = b;
+    }
+
+
     /**
      * Ez a metódus megváltoztatja a selected attribútum értékét.
      * Ha a selected jelenleg igaz, akkor hamisra állítja, és fordítva.
@@ -222,18 +240,15 @@ public class GTecton extends Polygon {
         Graphics2D g2 = (Graphics2D) g;
 
         for (int i = 0; i < tecton.getNeighbors().size(); i++) {
-            List<FungalThread> fList1 = tecton.getThreads();
-            List<FungalThread> fList2 = new ArrayList<>();
-            if (tecton.getNeighbors().get(i) != null) {
-                if (drawingPanel.getGTecton(tecton.getNeighbors().get(i)).getDone() == false) {
-                    fList2 = tecton.getNeighbors().get(i).getThreads();
-
-                    List<FungalThread> f1 = new ArrayList<>(fList1);
-                    f1.retainAll(fList2);
-                    if (!f1.isEmpty()) {
+            Tecton neighbor = tecton.getNeighbors().get(i);
+            if (neighbor != null) {
+                if (drawingPanel.getGTecton(neighbor).getDone() == false) {
+                    // ha nincs közös fonal, ezen az oldalon nincs mit rajzolni
+                    if (tecton.sharesThread(neighbor)) {
                         for (FungusPlayer fPlayer : controller.getFungusPlayers()) { // játékosokon végig
-                            for (int k = 0; k < f1.size(); k++) {
-                                if (f1.get(k) == fPlayer.getThread()) {
+                            FungalThread f = (FungalThread) fPlayer.getThread();
+                            if (f != null) {
+                                if (tecton.hasThread(f) && neighbor.hasThread(f)) {
                                     Color c = drawingPanel.getGPanel().returnColor(fPlayer);
 
                                     Point p1 = new Point(xpoints[i], ypoints[i]);
@@ -347,15 +362,22 @@ public class GTecton extends Polygon {
         g2.fillPolygon(this);
         g2.setColor(Color.BLACK);
         g2.drawPolygon(this);
+        if (highlighted && !selected) { // lehetséges célpont: vastag sárga keret
+            Stroke old = g2.getStroke();
+            g2.setStroke(new BasicStroke(3));
+            g2.setColor(Color.YELLOW);
+            g2.drawPolygon(this);
+            g2.setStroke(old);
+        }
 
-        List<Spore> spores = tecton.getSpores(); // ezek a spórák vannak rajta
-        if (spores.isEmpty()) {
+        if (tecton.sporeCount() == 0) { // nincs rajta spóra
             return;
         }
 
         for (FungusPlayer fPlayer : controller.getFungusPlayers()) { // játékosokon végig
-            for (Spore s : tecton.getSpores()) { // spórákon végig
-                if (s.getThread() == fPlayer.getThread()) { // ha ez a spóra rajta van a tektonon
+            FungalThread f = (FungalThread) fPlayer.getThread();
+            if (f != null) {
+                if (tecton.sporeCount(f) > 0) { // ha a játékosnak van spórája a tektonon
                     Color playerColor = null;
                     for (Entry<Player, Color> entry : drawingPanel.getGPanel().players.entrySet()) { // kiszedjük a
                         // színét
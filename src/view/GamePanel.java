@@ -1,6 +1,8 @@
 package view;
 
 import controller.Controller;
+import controller.GameHost;
+import controller.GameState;
 import controller.FungusPlayer;
 import controller.InsectPlayer;
 import controller.Player;
@@ -11,11 +13,11 @@ import java.awt.event.ActionListener;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import model.Insect;
 import model.Mushroom;
@@ -30,7 +32,7 @@ import static view.FieldCreator.*;
  * Az osztály felelős a játék állapotának kezeléséért és a felhasználói
  * interakciók feldolgozásáért.
  */
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements GameHost {
     private MainWindow parent;
     private DrawingPanel drawingPanel;
     private Controller controller;
@@ -51,7 +53,6 @@ public class GamePanel extends JPanel {
     private JButton closeButton;
 
     Map<Player, Color> players;
-    Random rand;
 
 
     /**
@@ -69,7 +70,6 @@ public class GamePanel extends JPanel {
         this.controller = controller;
         state = GameState.PUTFIRSTMUSHROOM;
         players = new HashMap<>();
-        rand = new Random();
 
         setLayout(new BorderLayout());
 
@@ -169,6 +169,7 @@ public class GamePanel extends JPanel {
      *
      * @param str A megjelenítendő hibaüzenet szövegét tartalmazó karakterlánc.
      */
+    @Override
     public void showError(String str) {
         JOptionPane.showMessageDialog(this, str, "Valami nem jó!", JOptionPane.ERROR_MESSAGE);
     }
@@ -179,21 +180,12 @@ public class GamePanel extends JPanel {
      *
      * @param str A megjelenítendő üzenet szövege.
      */
+    @Override
     public void showInformation(String str) {
         JOptionPane.showMessageDialog(this, str);
     }
 
 
-    /**
-     * Véletlenszerű számot generál.
-     *
-     * @return Egy véletlenszerű egész szám a [0, 1000) intervallumban.
-     */
-    public int randomize() {
-        return rand.nextInt(1000);
-    }
-
-
     /**
      * Visszaadja a megadott játékoshoz tartozó színt.
      *
@@ -210,28 +202,12 @@ public class GamePanel extends JPanel {
      * Meghívja a szülőkomponens (MainWindow) showWinPanel metódusát,
      * amely a végeredményt megjelenítő panelt mutatja meg a felhasználónak.
      */
+    @Override
     public void endGame() {
         parent.showWinPanel();
     }
 
 
-    /**
-     * Ellenőrzi, hogy egy adott tekton kettétörhető-e az aktuális feltételek alapján.
-     * A metódus a tektonhoz tartozó rajzolt vonalak (oldalak) számát vizsgálja,
-     * és ha az meghaladja a 3-at, akkor megtörhetőnek számít.
-     *
-     * @param t A vizsgált tekton objektum.
-     * @return Igaz, ha a tekton oldalainak száma több, mint 3, egyébként hamis.
-     */
-    public boolean canBreakTecton(Tecton t) {
-        if (drawingPanel.getGTecton(t).getLineCount() > 3) {
-            return true;
-        } else {
-            return false;
-        }
-    }
-
-
     /**
      * Frissíti a felső panel megjelenítését a jelenlegi játékos nevével és az aktuális kör számával.
      * <p>
@@ -269,6 +245,7 @@ public class GamePanel extends JPanel {
      *
      * @param state A játék új állapota, amelyet a GameState enum határoz meg.
      */
+    @Override
     public void setState(GameState state) {
         this.state = state;
     }
@@ -279,6 +256,7 @@ public class GamePanel extends JPanel {
      *
      * @return Az aktuális játékállapot, amely a GameState enum értékei közül valamelyik.
      */
+    @Override
     public GameState getState() {
         return state;
     }
@@ -318,6 +296,7 @@ public class GamePanel extends JPanel {
      * @param t      A hozzáadandó tekton objektum.
      * @param type   A tekton típusa, amely befolyásolja annak megjelenítését (például "MultiThreadTecton", "SingleThreadTecton").
      */
+    @Override
     public void addTecton(List<Integer> points, Tecton t, String type) {
 
         GTecton gtect = new GTecton();
@@ -365,6 +344,7 @@ public class GamePanel extends JPanel {
      * @param created1 Az első létrehozott új tekton.
      * @param created2 A második létrehozott új tekton.
      */
+    @Override
     public void breakTecton(Tecton source, Tecton created1, Tecton created2) {
         drawingPanel.breakTecton(source, created1, created2);
     }
@@ -377,6 +357,7 @@ public class GamePanel extends JPanel {
      *
      * @param m A hozzáadandó gomba objektum.
      */
+    @Override
     public void addMushroom(Mushroom m) {
         GMushroom gmush = new GMushroom();
         gmush.setMushroom(m);
@@ -393,6 +374,7 @@ public class GamePanel extends JPanel {
      *
      * @param m Az eltávolítandó gomba objektum.
      */
+    @Override
     public void removeMushroom(Mushroom m) {
         drawingPanel.removeMushroom(m);
         drawingPanel.repaint();
@@ -406,6 +388,7 @@ public class GamePanel extends JPanel {
      *
      * @param i A hozzáadandó rovar objektum.
      */
+    @Override
     public void addInsect(Insect i) {
         GInsect gins = new GInsect();
         gins.setInsect(i);
@@ -422,12 +405,26 @@ public class GamePanel extends JPanel {
      *
      * @param i Az eltávolítandó rovar objektum.
      */
+    @Override
     public void removeInsect(Insect i) {
         drawingPanel.removeInsect(i);
         drawingPanel.repaint();
     }
 
 
+    /**
+     * Az előkészítő feladatot az eseménykezelő szál sorának végére teszi, így
+     * az a kattintás feldolgozása és az újrarajzolás után, a játékos
+     * gondolkodási idejében fut le.
+     *
+     * @param task Az előkészítő feladat.
+     */
+    @Override
+    public void runWhenIdle(Runnable task) {
+        SwingUtilities.invokeLater(task);
+    }
+
+
     /**
      * A GamePanel felületének kirajzolását végző metódus.
      * Frissíti a felső panelt és beállítja a gombok láthatóságát a játékállapot alapján,
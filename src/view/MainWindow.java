@@ -36,7 +36,7 @@ public class MainWindow extends JFrame {
         nameEntry = new NameEntryPanel(this, controller);
         gamePanel = new GamePanel(this, controller);
         winPanel = new WinPanel(this, controller);
-        controller.setGPanel(gamePanel);
+        controller.setHost(gamePanel);
 
         cardPanel.add(startScreen, "start");
         cardPanel.add(nameEntry, "nameEntry");